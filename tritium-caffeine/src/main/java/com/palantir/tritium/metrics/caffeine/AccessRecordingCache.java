@@ -0,0 +1,128 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.tritium.metrics.caffeine;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Policy;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import javax.annotation.Nullable;
+
+/**
+ * Forwards to a cache, recording the keys of requests for size simulation as Caffeine's stats callbacks do not expose
+ * them. Reads through {@link #asMap()} are not recorded.
+ */
+class AccessRecordingCache<K, V> implements Cache<K, V> {
+
+    private final Cache<K, V> delegate;
+    private final MissRatioCurve curve;
+
+    AccessRecordingCache(Cache<K, V> delegate, MissRatioCurve curve) {
+        this.delegate = delegate;
+        this.curve = curve;
+    }
+
+    final void record(K key) {
+        curve.record(key);
+    }
+
+    final void recordAll(Iterable<? extends K> keys) {
+        for (K key : keys) {
+            curve.record(key);
+        }
+    }
+
+    @Nullable
+    @Override
+    public V getIfPresent(K key) {
+        record(key);
+        return delegate.getIfPresent(key);
+    }
+
+    @Nullable
+    @Override
+    public V get(K key, Function<? super K, ? extends V> mappingFunction) {
+        record(key);
+        return delegate.get(key, mappingFunction);
+    }
+
+    @Override
+    public Map<K, V> getAllPresent(Iterable<? extends K> keys) {
+        recordAll(keys);
+        return delegate.getAllPresent(keys);
+    }
+
+    @Override
+    public Map<K, V> getAll(
+            Iterable<? extends K> keys,
+            Function<? super Set<? extends K>, ? extends Map<? extends K, ? extends V>> mappingFunction) {
+        recordAll(keys);
+        return delegate.getAll(keys, mappingFunction);
+    }
+
+    @Override
+    public void put(K key, V value) {
+        delegate.put(key, value);
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> map) {
+        delegate.putAll(map);
+    }
+
+    @Override
+    public void invalidate(K key) {
+        delegate.invalidate(key);
+    }
+
+    @Override
+    public void invalidateAll(Iterable<? extends K> keys) {
+        delegate.invalidateAll(keys);
+    }
+
+    @Override
+    public void invalidateAll() {
+        delegate.invalidateAll();
+    }
+
+    @Override
+    public long estimatedSize() {
+        return delegate.estimatedSize();
+    }
+
+    @Override
+    public com.github.benmanes.caffeine.cache.stats.CacheStats stats() {
+        return delegate.stats();
+    }
+
+    @Override
+    public ConcurrentMap<K, V> asMap() {
+        return delegate.asMap();
+    }
+
+    @Override
+    public void cleanUp() {
+        delegate.cleanUp();
+    }
+
+    @Override
+    public Policy<K, V> policy() {
+        return delegate.policy();
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.tritium.metrics.caffeine;
+
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import javax.annotation.Nullable;
+
+/** Forwards to a loading cache, recording the keys of requests for size simulation. */
+final class AccessRecordingLoadingCache<K, V> extends AccessRecordingCache<K, V> implements LoadingCache<K, V> {
+
+    private final LoadingCache<K, V> delegate;
+
+    AccessRecordingLoadingCache(LoadingCache<K, V> delegate, MissRatioCurve curve) {
+        super(delegate, curve);
+        this.delegate = delegate;
+    }
+
+    @Nullable
+    @Override
+    public V get(K key) {
+        record(key);
+        return delegate.get(key);
+    }
+
+    @Override
+    public Map<K, V> getAll(Iterable<? extends K> keys) {
+        recordAll(keys);
+        return delegate.getAll(keys);
+    }
+
+    @Override
+    public CompletableFuture<V> refresh(K key) {
+        return delegate.refresh(key);
+    }
+
+    @Override
+    public CompletableFuture<Map<K, V>> refreshAll(Iterable<? extends K> keys) {
+        return delegate.refreshAll(keys);
+    }
+}
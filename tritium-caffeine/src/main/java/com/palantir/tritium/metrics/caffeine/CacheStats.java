@@ -18,38 +18,61 @@ package com.palantir.tritium.metrics.caffeine;
 
 import static com.palantir.logsafe.Preconditions.checkState;
 
+import com.codahale.metrics.Clock;
 import com.codahale.metrics.Counting;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
 import com.codahale.metrics.Meter;
+import com.codahale.metrics.RatioGauge;
 import com.codahale.metrics.Timer;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
 import com.github.benmanes.caffeine.cache.Policy;
 import com.github.benmanes.caffeine.cache.RemovalCause;
 import com.github.benmanes.caffeine.cache.stats.StatsCounter;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
+import com.google.common.math.LongMath;
 import com.palantir.logsafe.Safe;
 import com.palantir.tritium.metrics.caffeine.CacheMetrics.Load_Result;
 import com.palantir.tritium.metrics.caffeine.CacheMetrics.Request_Result;
+import com.palantir.tritium.metrics.caffeine.CacheMetrics.SimulatedHitRatio_Size;
+import com.palantir.tritium.metrics.caffeine.CacheMetrics.WindowedHitRatio_Window;
+import com.palantir.tritium.metrics.caffeine.CacheMetrics.WindowedMissRatio_Window;
+import com.palantir.tritium.metrics.registry.LeanMeter;
 import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
+import java.util.function.LongUnaryOperator;
 import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import javax.annotation.Nullable;
 import org.checkerframework.checker.index.qual.NonNegative;
 
 public final class CacheStats implements StatsCounter, Supplier<StatsCounter> {
 
     private final CacheMetrics metrics;
     private final String name;
+    private final Clock clock;
     private final Meter hitMeter;
     private final Meter missMeter;
     private final Timer loadSuccessTimer;
     private final Timer loadFailureTimer;
     private final ImmutableMap<RemovalCause, Meter> evictionMeters;
     private final ImmutableMap<RemovalCause, Meter> evictionWeightMeters;
-    private final LongAdder totalLoadTime = new LongAdder();
+    private final LongAdder totalLoadTime;
+
+    @Nullable
+    private final MissRatioCurve missRatioCurve;
+
+    @Nullable
+    private final EntrySampler entrySampler;
 
     /**
      * Creates a {@link CacheStats} instance that can be used to record metrics for Caffeine cache statistics.
@@ -67,7 +90,55 @@ public final class CacheStats implements StatsCounter, Supplier<StatsCounter> {
      * {@link com.github.benmanes.caffeine.cache.Caffeine#recordStats(Supplier)}.
      */
     public static CacheStats of(TaggedMetricRegistry taggedMetricRegistry, @Safe String name) {
-        return new CacheStats(CacheMetrics.of(taggedMetricRegistry), name);
+        return of(taggedMetricRegistry, name, Clock.defaultClock());
+    }
+
+    @VisibleForTesting
+    static CacheStats of(TaggedMetricRegistry taggedMetricRegistry, @Safe String name, Clock clock) {
+        return new CacheStats(taggedMetricRegistry, CacheMetrics.of(taggedMetricRegistry), name, clock);
+    }
+
+    /**
+     * Returns a {@link CacheStats} which additionally estimates the hit ratio the cache would achieve at half, double
+     * and quadruple its current maximum size, to inform cache sizing.
+     * <p>
+     * Caffeine's stats callbacks do not expose the keys of cache requests, so the registered cache must be wrapped with
+     * {@link #accessRecordingLoadingCache(LoadingCache)} or {@link #accessRecordingCache(Cache)}, which record the key
+     * of each request before delegating, or each accessed key passed to {@link #recordAccess(Object)}. Only keys whose
+     * hash falls within {@code samplingRate} of the hash space are tracked, with memory bounded by adaptively lowering
+     * the rate for caches with many distinct keys. Estimates assume LRU eviction and are only published for caches
+     * bounded by entry count, not weight.
+     * <p>
+     * Example usage:
+     * <pre>
+     *     CacheStats stats = CacheStats.of(taggedMetricRegistry, "your-cache-name").withSizeSimulation(0.01);
+     *     LoadingCache&lt;Integer, String&gt; cache = stats.accessRecordingLoadingCache(stats.register(
+     *             s -> Caffeine.newBuilder().recordStats(s).maximumSize(1_000).build(loader)));
+     * </pre>
+     * @param samplingRate fraction of keys to track, in (0, 1]
+     * @return stats instance recording the same metrics as this instance
+     */
+    public CacheStats withSizeSimulation(double samplingRate) {
+        return new CacheStats(this, new MissRatioCurve(samplingRate), entrySampler);
+    }
+
+    /**
+     * Returns a {@link CacheStats} which additionally samples entries from the coldest and hottest ends of the cache's
+     * eviction order on {@code executor}, recording histograms of entry weights for weighted caches and of entry ages
+     * for caches which expire entries after write or access. This shows whether a memory bound cache is retaining
+     * large entries which are rarely requested.
+     * <p>
+     * Each sample reads up to {@code sampleSize} entries from each end of the eviction order while holding the cache's
+     * eviction lock, so larger samples and shorter intervals improve accuracy at the expense of cache throughput.
+     * Caches without an eviction policy are not sampled.
+     *
+     * @param executor executor to sample entries on
+     * @param interval delay between samples
+     * @param sampleSize maximum number of entries to read from each end of the eviction order per sample
+     * @return stats instance recording the same metrics as this instance
+     */
+    public CacheStats withEntrySampling(ScheduledExecutorService executor, Duration interval, int sampleSize) {
+        return new CacheStats(this, missRatioCurve, new EntrySampler(executor, interval, sampleSize));
     }
 
     /**
@@ -104,19 +175,84 @@ public final class CacheStats implements StatsCounter, Supplier<StatsCounter> {
                 .map(Policy.Eviction::getMaximum)
                 .orElse(null));
 
+        // Lifetime hit ratios are dominated by history after long uptimes, so also report ratios over moving windows
+        // derived from the request meter rates
+        metrics.windowedHitRatio()
+                .cache(name)
+                .window(WindowedHitRatio_Window.ONE_MINUTE)
+                .build(ratio(hitMeter, missMeter, Meter::getOneMinuteRate));
+        metrics.windowedHitRatio()
+                .cache(name)
+                .window(WindowedHitRatio_Window.FIVE_MINUTE)
+                .build(ratio(hitMeter, missMeter, Meter::getFiveMinuteRate));
+        metrics.windowedHitRatio()
+                .cache(name)
+                .window(WindowedHitRatio_Window.FIFTEEN_MINUTE)
+                .build(ratio(hitMeter, missMeter, Meter::getFifteenMinuteRate));
+        metrics.windowedMissRatio()
+                .cache(name)
+                .window(WindowedMissRatio_Window.ONE_MINUTE)
+                .build(ratio(missMeter, hitMeter, Meter::getOneMinuteRate));
+        metrics.windowedMissRatio()
+                .cache(name)
+                .window(WindowedMissRatio_Window.FIVE_MINUTE)
+                .build(ratio(missMeter, hitMeter, Meter::getFiveMinuteRate));
+        metrics.windowedMissRatio()
+                .cache(name)
+                .window(WindowedMissRatio_Window.FIFTEEN_MINUTE)
+                .build(ratio(missMeter, hitMeter, Meter::getFifteenMinuteRate));
+        metrics.missSpike().cache(name).build(new RatioGauge() {
+            @Override
+            protected Ratio getRatio() {
+                return Ratio.of(missMeter.getOneMinuteRate(), missMeter.getFifteenMinuteRate());
+            }
+        });
+
+        EntrySampler sampler = entrySampler;
+        if (sampler != null) {
+            sampler.start(cache, metrics, name);
+        }
+
+        MissRatioCurve curve = missRatioCurve;
+        if (curve != null) {
+            metrics.simulatedHitRatio()
+                    .cache(name)
+                    .size(SimulatedHitRatio_Size.HALF)
+                    .build(simulatedHitRatio(cache, curve, size -> size / 2));
+            metrics.simulatedHitRatio()
+                    .cache(name)
+                    .size(SimulatedHitRatio_Size.DOUBLE)
+                    .build(simulatedHitRatio(cache, curve, size -> LongMath.saturatedMultiply(size, 2)));
+            metrics.simulatedHitRatio()
+                    .cache(name)
+                    .size(SimulatedHitRatio_Size.QUADRUPLE)
+                    .build(simulatedHitRatio(cache, curve, size -> LongMath.saturatedMultiply(size, 4)));
+        }
+
         return cache;
     }
 
-    private CacheStats(CacheMetrics metrics, @Safe String name) {
+    private CacheStats(TaggedMetricRegistry registry, CacheMetrics metrics, @Safe String name, Clock clock) {
         this.metrics = metrics;
         this.name = name;
-        this.hitMeter = metrics.request().cache(name).result(Request_Result.HIT).build();
-        this.missMeter =
-                metrics.request().cache(name).result(Request_Result.MISS).build();
-        this.loadSuccessTimer =
-                metrics.load().cache(name).result(Load_Result.SUCCESS).build();
-        this.loadFailureTimer =
-                metrics.load().cache(name).result(Load_Result.FAILURE).build();
+        this.clock = clock;
+        this.totalLoadTime = new LongAdder();
+        this.missRatioCurve = null;
+        this.entrySampler = null;
+        // Requests and loads are recorded on every cache access, so avoid ticking moving averages and contending on a
+        // sampling reservoir when they are recorded
+        this.hitMeter = registry.meter(
+                metrics.request().cache(name).result(Request_Result.HIT).buildMetricName(), () -> new LeanMeter(clock));
+        this.missMeter = registry.meter(
+                metrics.request()
+                        .cache(name)
+                        .result(Request_Result.MISS)
+                        .buildMetricName(),
+                () -> new LeanMeter(clock));
+        this.loadSuccessTimer = registry.timer(
+                metrics.load().cache(name).result(Load_Result.SUCCESS).buildMetricName(), () -> loadTimer(clock));
+        this.loadFailureTimer = registry.timer(
+                metrics.load().cache(name).result(Load_Result.FAILURE).buildMetricName(), () -> loadTimer(clock));
         this.evictionMeters = Arrays.stream(RemovalCause.values())
                 .collect(Maps.toImmutableEnumMap(cause -> cause, cause -> metrics.eviction()
                         .cache(name)
@@ -129,6 +265,75 @@ public final class CacheStats implements StatsCounter, Supplier<StatsCounter> {
                         .build()));
     }
 
+    private CacheStats(
+            CacheStats stats, @Nullable MissRatioCurve missRatioCurve, @Nullable EntrySampler entrySampler) {
+        this.metrics = stats.metrics;
+        this.name = stats.name;
+        this.clock = stats.clock;
+        this.hitMeter = stats.hitMeter;
+        this.missMeter = stats.missMeter;
+        this.loadSuccessTimer = stats.loadSuccessTimer;
+        this.loadFailureTimer = stats.loadFailureTimer;
+        this.evictionMeters = stats.evictionMeters;
+        this.evictionWeightMeters = stats.evictionWeightMeters;
+        this.totalLoadTime = stats.totalLoadTime;
+        this.missRatioCurve = missRatioCurve;
+        this.entrySampler = entrySampler;
+    }
+
+    private static Timer loadTimer(Clock clock) {
+        return new Timer(new LeanMeter(clock), new Histogram(new LoadLatencyReservoir(clock)), clock);
+    }
+
+    private static RatioGauge ratio(Meter numerator, Meter other, ToDoubleFunction<Meter> rate) {
+        return new RatioGauge() {
+            @Override
+            protected Ratio getRatio() {
+                double numeratorRate = rate.applyAsDouble(numerator);
+                return Ratio.of(numeratorRate, numeratorRate + rate.applyAsDouble(other));
+            }
+        };
+    }
+
+    private static Gauge<Double> simulatedHitRatio(
+            Cache<?, ?> cache, MissRatioCurve curve, LongUnaryOperator scaleMaximumSize) {
+        return () -> cache.policy()
+                .eviction()
+                .filter(eviction -> !eviction.isWeighted())
+                .map(eviction -> curve.hitRatio(scaleMaximumSize.applyAsLong(eviction.getMaximum())))
+                .orElse(null);
+    }
+
+    /**
+     * Returns a view of the given cache which records the key of each request for cache size simulation, see
+     * {@link #withSizeSimulation(double)}. Returns the cache itself unless size simulation is enabled.
+     */
+    public <K, V> Cache<K, V> accessRecordingCache(Cache<K, V> cache) {
+        MissRatioCurve curve = missRatioCurve;
+        return curve == null ? cache : new AccessRecordingCache<>(cache, curve);
+    }
+
+    /**
+     * Returns a view of the given loading cache which records the key of each request for cache size simulation, see
+     * {@link #withSizeSimulation(double)}. Returns the cache itself unless size simulation is enabled.
+     */
+    public <K, V> LoadingCache<K, V> accessRecordingLoadingCache(LoadingCache<K, V> cache) {
+        MissRatioCurve curve = missRatioCurve;
+        return curve == null ? cache : new AccessRecordingLoadingCache<>(cache, curve);
+    }
+
+    /**
+     * Records an access to the given key for cache size simulation, see {@link #withSizeSimulation(double)}. This is
+     * a no-op unless size simulation is enabled, and is not required for caches wrapped by
+     * {@link #accessRecordingLoadingCache(LoadingCache)} or {@link #accessRecordingCache(Cache)}.
+     */
+    public void recordAccess(Object key) {
+        MissRatioCurve curve = missRatioCurve;
+        if (curve != null) {
+            curve.record(key);
+        }
+    }
+
     @Override
     public StatsCounter get() {
         return this;
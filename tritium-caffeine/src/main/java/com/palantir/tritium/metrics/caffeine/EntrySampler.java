@@ -0,0 +1,207 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.tritium.metrics.caffeine;
+
+import com.codahale.metrics.Histogram;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Policy;
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.Safe;
+import com.palantir.logsafe.SafeArg;
+import com.palantir.logsafe.logger.SafeLogger;
+import com.palantir.logsafe.logger.SafeLoggerFactory;
+import com.palantir.tritium.metrics.caffeine.CacheMetrics.EntryAge_Position;
+import com.palantir.tritium.metrics.caffeine.CacheMetrics.EntryAge_Since;
+import com.palantir.tritium.metrics.caffeine.CacheMetrics.EntryWeight_Position;
+import java.lang.ref.WeakReference;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+
+/**
+ * Periodically samples entries from the coldest and hottest ends of a cache's eviction order, recording their weights
+ * and ages to show whether a cache is retaining large or stale entries which are unlikely to be requested again.
+ *
+ * <p>Each sample reads at most {@code sampleSize} entries from each end of the eviction order while holding the cache's
+ * eviction lock, bounding the cost of sampling. Sampling stops once the cache is garbage collected.
+ */
+final class EntrySampler {
+
+    private static final SafeLogger log = SafeLoggerFactory.get(EntrySampler.class);
+
+    private final ScheduledExecutorService executor;
+    private final Duration interval;
+    private final int sampleSize;
+
+    EntrySampler(ScheduledExecutorService executor, Duration interval, int sampleSize) {
+        Preconditions.checkNotNull(executor, "executor");
+        Preconditions.checkArgument(
+                !interval.isNegative() && !interval.isZero(),
+                "Sampling interval must be positive",
+                SafeArg.of("interval", interval));
+        Preconditions.checkArgument(
+                sampleSize > 0, "Sample size must be positive", SafeArg.of("sampleSize", sampleSize));
+        this.executor = executor;
+        this.interval = interval;
+        this.sampleSize = sampleSize;
+    }
+
+    /** Starts sampling the entries of {@code cache}, if it has an eviction policy and weighs or expires entries. */
+    <K, V> void start(Cache<K, V> cache, CacheMetrics metrics, @Safe String name) {
+        Policy<K, V> policy = cache.policy();
+        Optional<Policy.Eviction<K, V>> eviction = policy.eviction();
+        if (eviction.isEmpty()) {
+            return;
+        }
+        boolean weighted = eviction.get().isWeighted();
+        boolean expireAfterWrite = policy.expireAfterWrite().isPresent();
+        boolean expireAfterAccess = policy.expireAfterAccess().isPresent();
+        if (!weighted && !expireAfterWrite && !expireAfterAccess) {
+            return;
+        }
+        Samples coldest = new Samples(
+                weighted ? weight(metrics, name, EntryWeight_Position.COLDEST) : null,
+                expireAfterWrite ? age(metrics, name, EntryAge_Position.COLDEST, EntryAge_Since.WRITE) : null,
+                expireAfterAccess ? age(metrics, name, EntryAge_Position.COLDEST, EntryAge_Since.ACCESS) : null);
+        Samples hottest = new Samples(
+                weighted ? weight(metrics, name, EntryWeight_Position.HOTTEST) : null,
+                expireAfterWrite ? age(metrics, name, EntryAge_Position.HOTTEST, EntryAge_Since.WRITE) : null,
+                expireAfterAccess ? age(metrics, name, EntryAge_Position.HOTTEST, EntryAge_Since.ACCESS) : null);
+        Task<K, V> task = new Task<>(cache, name, sampleSize, coldest, hottest);
+        long intervalNanos = interval.toNanos();
+        task.future = executor.scheduleWithFixedDelay(task, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static Histogram weight(CacheMetrics metrics, @Safe String name, EntryWeight_Position position) {
+        return metrics.entryWeight().cache(name).position(position).build();
+    }
+
+    private static Histogram age(
+            CacheMetrics metrics, @Safe String name, EntryAge_Position position, EntryAge_Since since) {
+        return metrics.entryAge()
+                .cache(name)
+                .position(position)
+                .since(since)
+                .build();
+    }
+
+    @Override
+    public String toString() {
+        return "EntrySampler{interval=" + interval + ", sampleSize=" + sampleSize + '}';
+    }
+
+    private static final class Task<K, V> implements Runnable {
+
+        // Held weakly so that sampling does not prevent an otherwise unreachable cache from being collected
+        private final WeakReference<Cache<K, V>> cache;
+        private final String name;
+        private final int sampleSize;
+        private final Samples coldest;
+        private final Samples hottest;
+
+        @Nullable
+        private volatile ScheduledFuture<?> future;
+
+        private Task(Cache<K, V> cache, @Safe String name, int sampleSize, Samples coldest, Samples hottest) {
+            this.cache = new WeakReference<>(cache);
+            this.name = name;
+            this.sampleSize = sampleSize;
+            this.coldest = coldest;
+            this.hottest = hottest;
+        }
+
+        @Override
+        public void run() {
+            Cache<K, V> sampled = cache.get();
+            if (sampled == null) {
+                ScheduledFuture<?> scheduled = future;
+                if (scheduled != null) {
+                    scheduled.cancel(false);
+                }
+                return;
+            }
+            // Exceptions would suppress subsequent executions of the scheduled task
+            try {
+                sample(sampled);
+            } catch (RuntimeException e) {
+                log.warn("Failed to sample cache entries", SafeArg.of("cache", name), e);
+            }
+        }
+
+        private void sample(Cache<K, V> sampled) {
+            Policy<K, V> policy = sampled.policy();
+            Optional<Policy.Eviction<K, V>> eviction = policy.eviction();
+            if (eviction.isEmpty()) {
+                return;
+            }
+            record(policy, coldest, eviction.get().coldest(stream -> stream.limit(sampleSize)
+                    .collect(Collectors.toList())));
+            record(policy, hottest, eviction.get().hottest(stream -> stream.limit(sampleSize)
+                    .collect(Collectors.toList())));
+        }
+
+        private static <K, V> void record(
+                Policy<K, V> policy, Samples samples, List<Policy.CacheEntry<K, V>> entries) {
+            Optional<Policy.FixedExpiration<K, V>> expireAfterWrite = policy.expireAfterWrite();
+            Optional<Policy.FixedExpiration<K, V>> expireAfterAccess = policy.expireAfterAccess();
+            for (Policy.CacheEntry<K, V> entry : entries) {
+                if (samples.weight != null) {
+                    samples.weight.update(entry.weight());
+                }
+                if (samples.writeAge != null && expireAfterWrite.isPresent()) {
+                    expireAfterWrite
+                            .get()
+                            .ageOf(entry.getKey(), TimeUnit.NANOSECONDS)
+                            .ifPresent(samples.writeAge::update);
+                }
+                if (samples.accessAge != null && expireAfterAccess.isPresent()) {
+                    expireAfterAccess
+                            .get()
+                            .ageOf(entry.getKey(), TimeUnit.NANOSECONDS)
+                            .ifPresent(samples.accessAge::update);
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "EntrySampler.Task{cache=" + name + ", sampleSize=" + sampleSize + '}';
+        }
+    }
+
+    private static final class Samples {
+        @Nullable
+        private final Histogram weight;
+
+        @Nullable
+        private final Histogram writeAge;
+
+        @Nullable
+        private final Histogram accessAge;
+
+        private Samples(@Nullable Histogram weight, @Nullable Histogram writeAge, @Nullable Histogram accessAge) {
+            this.weight = weight;
+            this.writeAge = writeAge;
+            this.accessAge = accessAge;
+        }
+    }
+}
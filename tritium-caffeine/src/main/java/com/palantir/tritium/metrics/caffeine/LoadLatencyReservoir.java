@@ -0,0 +1,265 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.tritium.metrics.caffeine;
+
+import com.codahale.metrics.Clock;
+import com.codahale.metrics.Reservoir;
+import com.codahale.metrics.Snapshot;
+import com.google.common.annotations.VisibleForTesting;
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.SafeArg;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A lock-free {@link Reservoir} for cache load latencies which counts values in log-linear buckets, so that updating
+ * it is a single atomic increment regardless of the number of loads.
+ *
+ * <p>Each power of two is split into {@value #SUB_BUCKETS} linear buckets, so values are reported with a relative
+ * error of at most 12.5%. Values of an hour or more are counted in the highest bucket.
+ *
+ * <p>Counts roll over every minute, and a {@link #getSnapshot() snapshot} covers the previous complete minute and the
+ * current one, so that the distribution reflects recent loads rather than the lifetime of the process. Reading a
+ * snapshot does not reset any counts, so that any number of reporters and health checks observe the same distribution.
+ * Snapshots are computed from the bucket counts, and {@link Snapshot#getValues()} returns a proportional sample of at
+ * most {@value #MAX_SNAPSHOT_VALUES} values rather than one value per load.
+ */
+final class LoadLatencyReservoir implements Reservoir {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    @VisibleForTesting
+    static final long MAX_VALUE = TimeUnit.HOURS.toNanos(1);
+
+    private static final int BUCKETS = index(MAX_VALUE) + 1;
+
+    /** Matches the sample size of the default exponentially decaying reservoir. */
+    @VisibleForTesting
+    static final int MAX_SNAPSHOT_VALUES = 1028;
+
+    @VisibleForTesting
+    static final long INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final Clock clock;
+    private final AtomicReference<Window> window;
+
+    LoadLatencyReservoir(Clock clock) {
+        this.clock = clock;
+        this.window = new AtomicReference<>(
+                new Window(new AtomicLongArray(BUCKETS), new AtomicLongArray(BUCKETS), clock.getTick()));
+    }
+
+    @Override
+    public int size() {
+        Window current = currentWindow();
+        long size = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            size += current.previous.get(i) + current.current.get(i);
+        }
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public void update(long value) {
+        currentWindow().current.getAndIncrement(index(value));
+    }
+
+    @Override
+    public Snapshot getSnapshot() {
+        Window current = currentWindow();
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = current.previous.get(i) + current.current.get(i);
+        }
+        return new BucketSnapshot(snapshot);
+    }
+
+    /** Returns the window containing the current time, rolling over to a new interval if necessary. */
+    private Window currentWindow() {
+        long tick = clock.getTick();
+        while (true) {
+            Window current = window.get();
+            long elapsed = tick - current.startTick;
+            if (elapsed < INTERVAL_NANOS) {
+                return current;
+            }
+            // Counts from the interval which just completed are kept unless it was more than one interval ago
+            AtomicLongArray previous =
+                    elapsed < 2 * INTERVAL_NANOS ? current.current : new AtomicLongArray(BUCKETS);
+            Window next = new Window(
+                    previous,
+                    new AtomicLongArray(BUCKETS),
+                    current.startTick + elapsed / INTERVAL_NANOS * INTERVAL_NANOS);
+            if (window.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    @VisibleForTesting
+    static int index(long value) {
+        long clamped = Math.min(Math.max(value, 0), MAX_VALUE);
+        if (clamped < SUB_BUCKETS) {
+            return (int) clamped;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(clamped);
+        int subBucket = (int) (clamped >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /** Returns the midpoint of the values counted by the given bucket. */
+    @VisibleForTesting
+    static long value(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        long lowest = (1L << exponent) + (index % SUB_BUCKETS) * width;
+        return lowest + (width - 1) / 2;
+    }
+
+    private static final class Window {
+        private final AtomicLongArray previous;
+        private final AtomicLongArray current;
+        private final long startTick;
+
+        Window(AtomicLongArray previous, AtomicLongArray current, long startTick) {
+            this.previous = previous;
+            this.current = current;
+            this.startTick = startTick;
+        }
+    }
+
+    private static final class BucketSnapshot extends Snapshot {
+        private final long[] counts;
+        private final long size;
+
+        BucketSnapshot(long[] counts) {
+            this.counts = counts;
+            this.size = Arrays.stream(counts).sum();
+        }
+
+        @Override
+        public double getValue(double quantile) {
+            Preconditions.checkArgument(
+                    quantile >= 0.0 && quantile <= 1.0, "Quantile is not in [0..1]", SafeArg.of("quantile", quantile));
+            if (size == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(quantile * size));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return value(i);
+                }
+            }
+            return getMax();
+        }
+
+        /**
+         * Returns the bucket values in ascending order, each repeated in proportion to its count, scaled down so that
+         * at most {@value #MAX_SNAPSHOT_VALUES} values are returned.
+         */
+        @Override
+        public long[] getValues() {
+            int length = (int) Math.min(size, MAX_SNAPSHOT_VALUES);
+            long[] values = new long[length];
+            long seen = 0;
+            int offset = 0;
+            for (int i = 0; i < counts.length && offset < length; i++) {
+                if (counts[i] == 0) {
+                    continue;
+                }
+                seen += counts[i];
+                // Scaling cumulative counts keeps rounding errors from accumulating across buckets
+                int end = (int) Math.min(length, Math.round((double) seen * length / size));
+                Arrays.fill(values, offset, end, value(i));
+                offset = Math.max(offset, end);
+            }
+            return values;
+        }
+
+        @Override
+        public int size() {
+            return (int) Math.min(size, Integer.MAX_VALUE);
+        }
+
+        @Override
+        public long getMax() {
+            for (int i = counts.length - 1; i >= 0; i--) {
+                if (counts[i] > 0) {
+                    return value(i);
+                }
+            }
+            return 0;
+        }
+
+        @Override
+        public double getMean() {
+            if (size == 0) {
+                return 0;
+            }
+            double sum = 0;
+            for (int i = 0; i < counts.length; i++) {
+                sum += (double) counts[i] * value(i);
+            }
+            return sum / size;
+        }
+
+        @Override
+        public long getMin() {
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] > 0) {
+                    return value(i);
+                }
+            }
+            return 0;
+        }
+
+        @Override
+        public double getStdDev() {
+            if (size <= 1) {
+                return 0;
+            }
+            double mean = getMean();
+            double variance = 0;
+            for (int i = 0; i < counts.length; i++) {
+                double diff = value(i) - mean;
+                variance += counts[i] * diff * diff;
+            }
+            return Math.sqrt(variance / (size - 1));
+        }
+
+        @Override
+        public void dump(OutputStream output) {
+            try (PrintWriter out = new PrintWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8))) {
+                for (long value : getValues()) {
+                    out.printf("%d%n", value);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,288 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.tritium.metrics.caffeine;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.errorprone.annotations.concurrent.GuardedBy;
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.SafeArg;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Estimates the hit ratio an LRU cache would achieve at arbitrary sizes from a spatially hashed sample of accessed
+ * keys, following the fixed-size variant of SHARDS (Waldspurger et al., "Efficient MRC Construction with SHARDS",
+ * FAST '15).
+ *
+ * <p>A key is sampled when its hash falls below a threshold, so every access to a sampled key is observed and the
+ * reuse distance between accesses, the number of distinct sampled keys accessed in between, can be computed exactly.
+ * Scaling that distance by the sampling rate estimates the reuse distance over all keys, which is the smallest LRU
+ * cache size at which the access would have been a hit. Once more than {@code maxSampledKeys} keys are tracked the
+ * sampling rate is halved and keys which no longer fall below the threshold are discarded, bounding memory regardless
+ * of the key space. Accesses recorded at lower sampling rates are weighted accordingly.
+ *
+ * <p>Heavily skewed workloads may have a handful of hot keys accounting for a large fraction of accesses, making the
+ * estimate sensitive to whether those keys happen to be sampled. As in SHARDS-adj, the difference between the total
+ * number of accesses and the number estimated from the sample is attributed to the smallest reuse distance.
+ */
+final class MissRatioCurve {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+    private static final long HASH_RANGE = 1L << Integer.SIZE;
+    private static final int EMPTY = -1;
+
+    /** Bounds memory to a few hundred kilobytes, which SHARDS finds sufficient for accurate curves. */
+    private static final int DEFAULT_MAX_SAMPLED_KEYS = 8192;
+
+    private final int maxSampledKeys;
+
+    /** Keys are sampled when the upper 32 bits of their hash are below the threshold. */
+    private volatile long threshold;
+
+    private final LongAdder accesses = new LongAdder();
+
+    /**
+     * Open addressed table of tracked key hashes, avoiding boxing on every sampled access. Linear probing keeps the
+     * table at most half full, as it is sized for twice the maximum number of tracked keys.
+     */
+    @GuardedBy("this")
+    private final long[] keys;
+
+    /** Most recent access time of the key in the same slot of {@link #keys}, or {@link #EMPTY} for free slots. */
+    @GuardedBy("this")
+    private final int[] lastAccess;
+
+    @GuardedBy("this")
+    private int size;
+
+    /** Fenwick tree over logical access times marking the most recent access time of each tracked key. */
+    @GuardedBy("this")
+    private final int[] tree;
+
+    @GuardedBy("this")
+    private int time;
+
+    /** Weighted counts of accesses by scaled reuse distance. */
+    @GuardedBy("this")
+    private final double[] distances = new double[BUCKETS];
+
+    @GuardedBy("this")
+    private double coldMisses;
+
+    MissRatioCurve(double samplingRate) {
+        this(samplingRate, DEFAULT_MAX_SAMPLED_KEYS);
+    }
+
+    @VisibleForTesting
+    MissRatioCurve(double samplingRate, int maxSampledKeys) {
+        Preconditions.checkArgument(
+                samplingRate > 0 && samplingRate <= 1,
+                "Sampling rate must be in (0, 1]",
+                SafeArg.of("samplingRate", samplingRate));
+        Preconditions.checkArgument(
+                maxSampledKeys > 0,
+                "Maximum sampled keys must be positive",
+                SafeArg.of("maxSampledKeys", maxSampledKeys));
+        this.maxSampledKeys = maxSampledKeys;
+        this.threshold = Math.max(1L, (long) (samplingRate * HASH_RANGE));
+        // Leave headroom so that access times are only compacted once per maxSampledKeys accesses
+        this.tree = new int[2 * maxSampledKeys + 2];
+        this.keys = new long[Integer.highestOneBit(maxSampledKeys) << 2];
+        this.lastAccess = new int[keys.length];
+        Arrays.fill(lastAccess, EMPTY);
+    }
+
+    /** Records an access to the given key, cheaply ignoring keys which are not sampled. */
+    void record(Object key) {
+        accesses.increment();
+        long hash = hash(key);
+        if ((hash >>> Integer.SIZE) < threshold) {
+            recordSampled(hash);
+        }
+    }
+
+    private synchronized void recordSampled(long hash) {
+        long currentThreshold = threshold;
+        if ((hash >>> Integer.SIZE) >= currentThreshold) {
+            return;
+        }
+        double rate = (double) currentThreshold / HASH_RANGE;
+        if (time == tree.length - 1) {
+            compact();
+        }
+        int slot = slot(hash);
+        int previous = lastAccess[slot];
+        if (previous == EMPTY) {
+            coldMisses += 1 / rate;
+            keys[slot] = hash;
+            size++;
+        } else {
+            long distance = count(time) - count(previous + 1);
+            distances[index((long) (distance / rate))] += 1 / rate;
+            add(previous, -1);
+        }
+        lastAccess[slot] = time;
+        add(time, 1);
+        time++;
+        if (size > maxSampledKeys) {
+            lowerThreshold();
+        }
+    }
+
+    /**
+     * Returns the estimated fraction of accesses which would have hit in an LRU cache holding {@code size} entries, or
+     * {@link Double#NaN} if no accesses have been sampled.
+     */
+    synchronized double hitRatio(long size) {
+        double total = accesses.sum();
+        if (total == 0) {
+            return Double.NaN;
+        }
+        double hits = 0;
+        double sampled = coldMisses;
+        for (int i = 0; i < BUCKETS; i++) {
+            sampled += distances[i];
+            // An access hits when fewer than size distinct keys were accessed since the previous access to its key
+            if (upperBound(i) < size) {
+                hits += distances[i];
+            } else if (lowerBound(i) < size) {
+                hits += distances[i] * (size - lowerBound(i)) / (upperBound(i) - lowerBound(i) + 1);
+            }
+        }
+        // Accesses missing from the sample are most likely to be to unsampled hot keys, which hit at any size
+        hits += total - sampled;
+        return Math.min(Math.max(hits / total, 0), 1);
+    }
+
+    @VisibleForTesting
+    synchronized int sampledKeys() {
+        return size;
+    }
+
+    @VisibleForTesting
+    double samplingRate() {
+        return (double) threshold / HASH_RANGE;
+    }
+
+    @GuardedBy("this")
+    private void lowerThreshold() {
+        while (size > maxSampledKeys && threshold > 1) {
+            long lowered = threshold / 2;
+            threshold = lowered;
+            // Reinsert the remaining keys rather than deleting in place, which would break linear probe sequences
+            long[] previousKeys = keys.clone();
+            int[] previousAccess = lastAccess.clone();
+            Arrays.fill(lastAccess, EMPTY);
+            size = 0;
+            for (int i = 0; i < previousKeys.length; i++) {
+                if (previousAccess[i] != EMPTY && (previousKeys[i] >>> Integer.SIZE) < lowered) {
+                    int slot = slot(previousKeys[i]);
+                    keys[slot] = previousKeys[i];
+                    lastAccess[slot] = previousAccess[i];
+                    size++;
+                }
+            }
+        }
+        compact();
+    }
+
+    /** Renumbers the access times of tracked keys from zero, preserving their order. */
+    @GuardedBy("this")
+    private void compact() {
+        // Access times are distinct and below the current time, so slots can be ordered without sorting
+        int[] slotsByTime = new int[time];
+        Arrays.fill(slotsByTime, EMPTY);
+        for (int slot = 0; slot < lastAccess.length; slot++) {
+            if (lastAccess[slot] != EMPTY) {
+                slotsByTime[lastAccess[slot]] = slot;
+            }
+        }
+        Arrays.fill(tree, 0);
+        int renumbered = 0;
+        for (int slot : slotsByTime) {
+            if (slot != EMPTY) {
+                lastAccess[slot] = renumbered;
+                add(renumbered, 1);
+                renumbered++;
+            }
+        }
+        time = renumbered;
+    }
+
+    /** Returns the slot holding the given key hash, or the free slot at which it should be inserted. */
+    @GuardedBy("this")
+    private int slot(long hash) {
+        int mask = keys.length - 1;
+        int slot = (int) hash & mask;
+        while (lastAccess[slot] != EMPTY && keys[slot] != hash) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    @GuardedBy("this")
+    private void add(int accessTime, int delta) {
+        for (int i = accessTime + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    /** Returns the number of tracked keys last accessed before the given time. */
+    @GuardedBy("this")
+    private int count(int accessTime) {
+        int sum = 0;
+        for (int i = accessTime; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    private static long hash(Object key) {
+        // Spread the hash code over 64 bits, as sampling and identifying keys by hash requires well distributed bits
+        long hash = key.hashCode() * 0x9E3779B97F4A7C15L;
+        hash ^= hash >>> 29;
+        hash *= 0xBF58476D1CE4E5B9L;
+        return hash ^ (hash >>> 32);
+    }
+
+    /** Log-linear buckets with {@link #SUB_BUCKETS} buckets per power of two, exact below {@link #SUB_BUCKETS}. */
+    @VisibleForTesting
+    static int index(long distance) {
+        if (distance < SUB_BUCKETS) {
+            return (int) distance;
+        }
+        int exponent = Long.SIZE - Long.numberOfLeadingZeros(distance) - SUB_BUCKET_BITS;
+        return (exponent << SUB_BUCKET_BITS) + (int) (distance >>> (exponent - 1)) - SUB_BUCKETS;
+    }
+
+    @VisibleForTesting
+    static long lowerBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = index >>> SUB_BUCKET_BITS;
+        long subBucket = (index & (SUB_BUCKETS - 1)) + SUB_BUCKETS;
+        return subBucket << (exponent - 1);
+    }
+
+    @VisibleForTesting
+    static long upperBound(int index) {
+        return index == BUCKETS - 1 ? Long.MAX_VALUE : lowerBound(index + 1) - 1;
+    }
+}
@@ -18,25 +18,41 @@ package com.palantir.tritium.metrics.caffeine;
 
 import static com.palantir.logsafe.testing.Assertions.assertThatLoggableExceptionThrownBy;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
 import static org.assertj.core.api.InstanceOfAssertFactories.type;
 import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
 
+import com.codahale.metrics.Clock;
 import com.codahale.metrics.ConsoleReporter;
 import com.codahale.metrics.Counter;
 import com.codahale.metrics.Gauge;
 import com.codahale.metrics.Meter;
 import com.codahale.metrics.Metric;
 import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.Timer;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.google.common.collect.MoreCollectors;
 import com.palantir.logsafe.exceptions.SafeIllegalStateException;
+import com.palantir.tritium.metrics.caffeine.CacheMetrics.EntryAge_Position;
+import com.palantir.tritium.metrics.caffeine.CacheMetrics.EntryAge_Since;
+import com.palantir.tritium.metrics.caffeine.CacheMetrics.EntryWeight_Position;
+import com.palantir.tritium.metrics.caffeine.CacheMetrics.Load_Result;
 import com.palantir.tritium.metrics.caffeine.CacheMetrics.Request_Result;
 import com.palantir.tritium.metrics.registry.DefaultTaggedMetricRegistry;
+import com.palantir.tritium.metrics.registry.LeanMeter;
 import com.palantir.tritium.metrics.registry.MetricName;
 import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
 import java.time.Duration;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 import org.assertj.core.api.AbstractObjectAssert;
 import org.junit.jupiter.api.AfterEach;
@@ -268,7 +284,14 @@ final class CaffeineCacheStatsTest {
                         "cache.load", // failure
                         "cache.estimated.size",
                         "cache.weighted.size",
-                        "cache.maximum.size");
+                        "cache.maximum.size",
+                        "cache.windowed.hit.ratio", // one-minute
+                        "cache.windowed.hit.ratio", // five-minute
+                        "cache.windowed.hit.ratio", // fifteen-minute
+                        "cache.windowed.miss.ratio", // one-minute
+                        "cache.windowed.miss.ratio", // five-minute
+                        "cache.windowed.miss.ratio", // fifteen-minute
+                        "cache.miss.spike");
 
         CacheMetrics cacheMetrics = CacheMetrics.of(taggedMetricRegistry);
         assertThat(cacheMetrics.eviction().cache("test").cause("SIZE").build().getCount())
@@ -341,7 +364,14 @@ final class CaffeineCacheStatsTest {
                         "cache.load", // failure
                         "cache.estimated.size",
                         "cache.weighted.size",
-                        "cache.maximum.size");
+                        "cache.maximum.size",
+                        "cache.windowed.hit.ratio", // one-minute
+                        "cache.windowed.hit.ratio", // five-minute
+                        "cache.windowed.hit.ratio", // fifteen-minute
+                        "cache.windowed.miss.ratio", // one-minute
+                        "cache.windowed.miss.ratio", // five-minute
+                        "cache.windowed.miss.ratio", // fifteen-minute
+                        "cache.miss.spike");
 
         CacheMetrics cacheMetrics = CacheMetrics.of(taggedMetricRegistry);
         assertThat(cacheMetrics.eviction().cache("test").cause("SIZE").build().getCount())
@@ -386,6 +416,209 @@ final class CaffeineCacheStatsTest {
                 .isOne();
     }
 
+    @Test
+    void registerLeanRequestAndLoadMetrics() {
+        LoadingCache<Integer, String> cache = CacheStats.of(taggedMetricRegistry, "test")
+                .register(stats ->
+                        Caffeine.newBuilder().recordStats(stats).maximumSize(2).build(mapping::apply));
+        assertThat(cache.get(0)).isEqualTo("0");
+        assertThat(cache.get(0)).isEqualTo("0");
+
+        CacheMetrics cacheMetrics = CacheMetrics.of(taggedMetricRegistry);
+        assertThat(taggedMetricRegistry.getMetrics())
+                .extractingByKey(cacheMetrics
+                        .request()
+                        .cache("test")
+                        .result(Request_Result.HIT)
+                        .buildMetricName())
+                .isInstanceOf(LeanMeter.class);
+        Timer loadTimer = cacheMetrics
+                .load()
+                .cache("test")
+                .result(Load_Result.SUCCESS)
+                .build();
+        assertThat(loadTimer.getCount()).isOne();
+        assertThat(loadTimer.getSnapshot().getMax()).isPositive();
+        assertThat(cache.stats().hitCount()).isOne();
+        assertThat(cache.stats().missCount()).isOne();
+        assertThat(cache.stats().loadSuccessCount()).isOne();
+    }
+
+    @Test
+    void registerWindowedRatios() {
+        AtomicLong tick = new AtomicLong();
+        Clock clock = new Clock() {
+            @Override
+            public long getTick() {
+                return tick.get();
+            }
+        };
+        CacheStats cacheStats = CacheStats.of(taggedMetricRegistry, "test", clock);
+        cacheStats.register(stats -> Caffeine.newBuilder().recordStats(stats).build());
+
+        assertThat(gauge("cache.windowed.hit.ratio", "window", "one-minute")).isNaN();
+        assertThat(gauge("cache.miss.spike", "cache", "test")).isNaN();
+
+        cacheStats.recordHits(30);
+        cacheStats.recordMisses(10);
+        tick.addAndGet(Duration.ofSeconds(6).toNanos());
+        for (String window : List.of("one-minute", "five-minute", "fifteen-minute")) {
+            assertThat(gauge("cache.windowed.hit.ratio", "window", window)).isCloseTo(0.75, within(1e-9));
+            assertThat(gauge("cache.windowed.miss.ratio", "window", window)).isCloseTo(0.25, within(1e-9));
+        }
+        assertThat(gauge("cache.miss.spike", "cache", "test")).isCloseTo(1.0, within(1e-9));
+
+        // Only misses in the most recent interval move the shorter windows furthest
+        cacheStats.recordMisses(40);
+        tick.addAndGet(Duration.ofSeconds(5).toNanos());
+        double oneMinute = gauge("cache.windowed.hit.ratio", "window", "one-minute");
+        double fiveMinute = gauge("cache.windowed.hit.ratio", "window", "five-minute");
+        double fifteenMinute = gauge("cache.windowed.hit.ratio", "window", "fifteen-minute");
+        assertThat(oneMinute).isLessThan(fiveMinute);
+        assertThat(fiveMinute).isLessThan(fifteenMinute);
+        assertThat(fifteenMinute).isLessThan(0.75);
+        assertThat(gauge("cache.windowed.miss.ratio", "window", "one-minute")).isCloseTo(1 - oneMinute, within(1e-9));
+        assertThat(gauge("cache.miss.spike", "cache", "test")).isGreaterThan(1.0);
+        assertThat(cacheStats.snapshot().hitRate()).isCloseTo(0.375, within(1e-9));
+    }
+
+    @Test
+    void registerSizeSimulation() {
+        CacheStats cacheStats = CacheStats.of(taggedMetricRegistry, "test").withSizeSimulation(1);
+        LoadingCache<Integer, String> cache = cacheStats.accessRecordingLoadingCache(cacheStats.register(
+                stats -> Caffeine.newBuilder().recordStats(stats).maximumSize(100).build(mapping::apply)));
+        assertThat(gauge("cache.simulated.hit.ratio", "size", "double")).isNaN();
+
+        for (int pass = 0; pass < 10; pass++) {
+            for (int key = 0; key < 150; key++) {
+                assertThat(cache.get(key)).isEqualTo(String.valueOf(key));
+            }
+        }
+        assertThat(gauge("cache.simulated.hit.ratio", "size", "half")).isZero();
+        assertThat(gauge("cache.simulated.hit.ratio", "size", "double")).isCloseTo(0.9, within(1e-9));
+        assertThat(gauge("cache.simulated.hit.ratio", "size", "quadruple")).isCloseTo(0.9, within(1e-9));
+        assertThat(cacheStats.snapshot().requestCount()).isEqualTo(1_500);
+        assertThat(CacheStats.of(taggedMetricRegistry, "test").snapshot().requestCount())
+                .isEqualTo(1_500);
+    }
+
+    @Test
+    void accessRecordingCache() {
+        CacheStats cacheStats = CacheStats.of(taggedMetricRegistry, "test").withSizeSimulation(1);
+        Cache<Integer, String> cache = cacheStats.accessRecordingCache(cacheStats.register(
+                stats -> Caffeine.newBuilder().recordStats(stats).maximumSize(1).build()));
+        cache.put(1, "1");
+        assertThat(gauge("cache.simulated.hit.ratio", "size", "double")).isNaN();
+
+        assertThat(cache.getIfPresent(1)).isEqualTo("1");
+        assertThat(cache.get(1, mapping)).isEqualTo("1");
+        assertThat(cache.getAllPresent(List.of(1))).containsOnlyKeys(1);
+        assertThat(gauge("cache.simulated.hit.ratio", "size", "double")).isCloseTo(2.0 / 3, within(1e-9));
+        assertThat(cacheStats.snapshot().requestCount()).isEqualTo(3);
+    }
+
+    @Test
+    void accessRecordingCacheWithoutSizeSimulation() {
+        CacheStats cacheStats = CacheStats.of(taggedMetricRegistry, "test");
+        Cache<Integer, String> cache =
+                cacheStats.register(stats -> Caffeine.newBuilder().recordStats(stats).build());
+        assertThat(cacheStats.accessRecordingCache(cache)).isSameAs(cache);
+    }
+
+    @Test
+    void registerSizeSimulationUnbounded() {
+        CacheStats cacheStats = CacheStats.of(taggedMetricRegistry, "test").withSizeSimulation(1);
+        cacheStats.register(stats -> Caffeine.newBuilder().recordStats(stats).build());
+        cacheStats.recordAccess(1);
+        assertThat(taggedMetricRegistry.getMetrics().entrySet())
+                .filteredOn(entry -> entry.getKey().safeName().equals("cache.simulated.hit.ratio"))
+                .hasSize(3)
+                .allSatisfy(entry -> assertThat(((Gauge<?>) entry.getValue()).getValue())
+                        .isNull());
+    }
+
+    @Test
+    void registerEntrySampling() {
+        AtomicLong ticker = new AtomicLong();
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        try {
+            Cache<Integer, String> cache = CacheStats.of(taggedMetricRegistry, "test")
+                    .withEntrySampling(executor, Duration.ofMillis(1), 2)
+                    .register(stats -> Caffeine.newBuilder()
+                            .recordStats(stats)
+                            .executor(Runnable::run)
+                            .ticker(ticker::get)
+                            .maximumWeight(1_000)
+                            .<Integer, String>weigher((key, value) -> value.length())
+                            .expireAfterWrite(Duration.ofHours(1))
+                            .expireAfterAccess(Duration.ofHours(1))
+                            .build());
+            for (int key = 1; key <= 5; key++) {
+                cache.put(key, "x".repeat(key * 10));
+            }
+            ticker.addAndGet(Duration.ofMinutes(1).toNanos());
+
+            CacheMetrics cacheMetrics = CacheMetrics.of(taggedMetricRegistry);
+            await().atMost(Duration.ofSeconds(10)).untilAsserted(() -> {
+                for (EntryWeight_Position position : EntryWeight_Position.values()) {
+                    Snapshot weights = cacheMetrics
+                            .entryWeight()
+                            .cache("test")
+                            .position(position)
+                            .build()
+                            .getSnapshot();
+                    assertThat(weights.size()).isPositive();
+                    assertThat(weights.getMin()).isGreaterThanOrEqualTo(10);
+                    assertThat(weights.getMax()).isLessThanOrEqualTo(50);
+                }
+                for (EntryAge_Position position : EntryAge_Position.values()) {
+                    for (EntryAge_Since since : EntryAge_Since.values()) {
+                        assertThat(cacheMetrics
+                                        .entryAge()
+                                        .cache("test")
+                                        .position(position)
+                                        .since(since)
+                                        .build()
+                                        .getSnapshot()
+                                        .getValues())
+                                .isNotEmpty()
+                                .containsOnly(Duration.ofMinutes(1).toNanos());
+                    }
+                }
+            });
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void registerEntrySamplingUnbounded() {
+        ScheduledExecutorService executor = mock(ScheduledExecutorService.class);
+        CacheStats.of(taggedMetricRegistry, "test")
+                .withEntrySampling(executor, Duration.ofSeconds(1), 10)
+                .register(stats -> Caffeine.newBuilder().recordStats(stats).build());
+        verifyNoInteractions(executor);
+        assertThat(taggedMetricRegistry.getMetrics().keySet())
+                .extracting(MetricName::safeName)
+                .doesNotContain("cache.entry.weight", "cache.entry.age");
+
+        assertThatLoggableExceptionThrownBy(() ->
+                        CacheStats.of(taggedMetricRegistry, "test").withEntrySampling(executor, Duration.ZERO, 10))
+                .hasLogMessage("Sampling interval must be positive");
+        assertThatLoggableExceptionThrownBy(() -> CacheStats.of(taggedMetricRegistry, "test")
+                        .withEntrySampling(executor, Duration.ofSeconds(1), 0))
+                .hasLogMessage("Sample size must be positive");
+    }
+
+    private double gauge(String safeName, String tagName, String tagValue) {
+        return taggedMetricRegistry.getMetrics().entrySet().stream()
+                .filter(entry -> entry.getKey().safeName().equals(safeName)
+                        && tagValue.equals(entry.getKey().safeTags().get(tagName)))
+                .map(entry -> ((Gauge<?>) entry.getValue()).getValue())
+                .map(Double.class::cast)
+                .collect(MoreCollectors.onlyElement());
+    }
+
     @Test
     void registerWithoutStatsRecording() {
         CacheStats cacheStats = CacheStats.of(taggedMetricRegistry, "test");
@@ -0,0 +1,147 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.tritium.metrics.caffeine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import com.codahale.metrics.Clock;
+import com.codahale.metrics.Snapshot;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.assertj.core.data.Percentage;
+import org.junit.jupiter.api.Test;
+
+final class LoadLatencyReservoirTest {
+
+    private final AtomicLong ticker = new AtomicLong();
+    private final Clock clock = new Clock() {
+        @Override
+        public long getTick() {
+            return ticker.get();
+        }
+    };
+
+    @Test
+    void bucketsAreContiguousAndAccurate() {
+        assertThat(LoadLatencyReservoir.index(-1)).isZero();
+        assertThat(LoadLatencyReservoir.index(0)).isZero();
+        for (long value = 0; value < 16; value++) {
+            assertThat(LoadLatencyReservoir.value(LoadLatencyReservoir.index(value)))
+                    .isEqualTo(value);
+        }
+        int previous = 0;
+        for (long value = 1; value < 1_000_000; value++) {
+            int index = LoadLatencyReservoir.index(value);
+            assertThat(index).isBetween(previous, previous + 1);
+            previous = index;
+        }
+        for (int i = 0; i < 10_000; i++) {
+            long value = ThreadLocalRandom.current().nextLong(LoadLatencyReservoir.MAX_VALUE);
+            assertThat(LoadLatencyReservoir.value(LoadLatencyReservoir.index(value)))
+                    .isCloseTo(value, Percentage.withPercentage(12.5));
+        }
+        assertThat(LoadLatencyReservoir.index(Long.MAX_VALUE))
+                .isEqualTo(LoadLatencyReservoir.index(LoadLatencyReservoir.MAX_VALUE));
+    }
+
+    @Test
+    void snapshot() {
+        LoadLatencyReservoir reservoir = new LoadLatencyReservoir(clock);
+        for (long i = 1; i <= 100; i++) {
+            reservoir.update(TimeUnit.MILLISECONDS.toNanos(i));
+        }
+        assertThat(reservoir.size()).isEqualTo(100);
+
+        Snapshot snapshot = reservoir.getSnapshot();
+        assertThat(snapshot.size()).isEqualTo(100);
+        assertThat(snapshot.getValues()).hasSize(100).isSorted();
+        assertThat(snapshot.getMin()).isCloseTo(TimeUnit.MILLISECONDS.toNanos(1), Percentage.withPercentage(12.5));
+        assertThat(snapshot.getMax()).isCloseTo(TimeUnit.MILLISECONDS.toNanos(100), Percentage.withPercentage(12.5));
+        assertThat(snapshot.getMedian()).isCloseTo(TimeUnit.MILLISECONDS.toNanos(50), Percentage.withPercentage(12.5));
+        assertThat(snapshot.get99thPercentile())
+                .isCloseTo(TimeUnit.MILLISECONDS.toNanos(99), Percentage.withPercentage(12.5));
+        assertThat(snapshot.getMean()).isCloseTo(TimeUnit.MICROSECONDS.toNanos(50_500), Percentage.withPercentage(5));
+        assertThat(snapshot.getStdDev()).isPositive();
+    }
+
+    @Test
+    void snapshotsAreCumulative() {
+        LoadLatencyReservoir reservoir = new LoadLatencyReservoir(clock);
+        reservoir.update(1_000);
+        assertThat(reservoir.getSnapshot().size()).isOne();
+        assertThat(reservoir.getSnapshot().getValues()).containsExactly(LoadLatencyReservoir.value(
+                LoadLatencyReservoir.index(1_000)));
+
+        reservoir.update(2_000);
+        assertThat(reservoir.size()).isEqualTo(2);
+        assertThat(reservoir.getSnapshot().size()).isEqualTo(2);
+    }
+
+    @Test
+    void oldLoadsRollOver() {
+        LoadLatencyReservoir reservoir = new LoadLatencyReservoir(clock);
+        reservoir.update(1_000_000);
+
+        // Loads from the previous interval are still reported
+        ticker.addAndGet(LoadLatencyReservoir.INTERVAL_NANOS);
+        reservoir.update(1_000);
+        assertThat(reservoir.size()).isEqualTo(2);
+        assertThat(reservoir.getSnapshot().getMax())
+                .isEqualTo(LoadLatencyReservoir.value(LoadLatencyReservoir.index(1_000_000)));
+
+        ticker.addAndGet(LoadLatencyReservoir.INTERVAL_NANOS);
+        Snapshot snapshot = reservoir.getSnapshot();
+        assertThat(snapshot.size()).isOne();
+        assertThat(snapshot.getMax()).isEqualTo(LoadLatencyReservoir.value(LoadLatencyReservoir.index(1_000)));
+
+        ticker.addAndGet(2 * LoadLatencyReservoir.INTERVAL_NANOS);
+        assertThat(reservoir.size()).isZero();
+        assertThat(reservoir.getSnapshot().size()).isZero();
+    }
+
+    @Test
+    void snapshotValuesAreBounded() {
+        LoadLatencyReservoir reservoir = new LoadLatencyReservoir(clock);
+        for (int i = 0; i < 100_000; i++) {
+            reservoir.update(i % 2 == 0 ? 1_000 : 1_000_000);
+        }
+        Snapshot snapshot = reservoir.getSnapshot();
+        assertThat(snapshot.size()).isEqualTo(100_000);
+        long[] values = snapshot.getValues();
+        assertThat(values).hasSize(LoadLatencyReservoir.MAX_SNAPSHOT_VALUES).isSorted();
+        assertThat(values[0]).isEqualTo(snapshot.getMin());
+        assertThat(values[values.length - 1]).isEqualTo(snapshot.getMax());
+        assertThat(values[values.length / 2 - 1]).isEqualTo(snapshot.getMin());
+        assertThat(values[values.length / 2 + 1]).isEqualTo(snapshot.getMax());
+    }
+
+    @Test
+    void emptySnapshot() {
+        LoadLatencyReservoir reservoir = new LoadLatencyReservoir(clock);
+        Snapshot empty = reservoir.getSnapshot();
+        assertThat(reservoir.size()).isZero();
+        assertThat(empty.size()).isZero();
+        assertThat(empty.getValues()).isEmpty();
+        assertThat(empty.getMax()).isZero();
+        assertThat(empty.getMin()).isZero();
+        assertThat(empty.getMean()).isZero();
+        assertThat(empty.getMedian()).isZero();
+        assertThat(empty.getStdDev()).isCloseTo(0, within(0.0));
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.tritium.metrics.caffeine;
+
+import static com.palantir.logsafe.testing.Assertions.assertThatLoggableExceptionThrownBy;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import com.palantir.logsafe.exceptions.SafeIllegalArgumentException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+final class MissRatioCurveTest {
+
+    @Test
+    void bucketsAreContiguous() {
+        assertThat(MissRatioCurve.lowerBound(0)).isZero();
+        for (long distance = 0; distance < 100_000; distance++) {
+            int index = MissRatioCurve.index(distance);
+            assertThat(distance).isBetween(MissRatioCurve.lowerBound(index), MissRatioCurve.upperBound(index));
+        }
+        for (int index = 1; index <= MissRatioCurve.index(Long.MAX_VALUE); index++) {
+            assertThat(MissRatioCurve.lowerBound(index)).isEqualTo(MissRatioCurve.upperBound(index - 1) + 1);
+        }
+        assertThat(MissRatioCurve.upperBound(MissRatioCurve.index(Long.MAX_VALUE)))
+                .isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    void cyclicAccesses() {
+        MissRatioCurve curve = new MissRatioCurve(1);
+        assertThat(curve.hitRatio(100)).isNaN();
+        for (int pass = 0; pass < 10; pass++) {
+            for (int key = 0; key < 100; key++) {
+                curve.record(key);
+            }
+        }
+        // Cycling through more keys than fit in an LRU cache always misses
+        assertThat(curve.hitRatio(50)).isZero();
+        assertThat(curve.hitRatio(200)).isCloseTo(0.9, within(1e-9));
+    }
+
+    @Test
+    void compactionPreservesReuseDistances() {
+        // Access times are renumbered every hundred or so accesses
+        MissRatioCurve curve = new MissRatioCurve(1, 100);
+        for (int pass = 0; pass < 20; pass++) {
+            for (int key = 0; key < 50; key++) {
+                curve.record(key);
+            }
+        }
+        assertThat(curve.sampledKeys()).isEqualTo(50);
+        assertThat(curve.hitRatio(25)).isZero();
+        assertThat(curve.hitRatio(100)).isCloseTo(0.95, within(1e-9));
+    }
+
+    @Test
+    void matchesLruSimulation() {
+        MissRatioCurve curve = new MissRatioCurve(1, 1 << 17);
+        Map<Integer, Boolean> small = lru(100);
+        Map<Integer, Boolean> large = lru(1_000);
+        int smallHits = 0;
+        int largeHits = 0;
+        Random random = new Random(0);
+        int accesses = 200_000;
+        for (int i = 0; i < accesses; i++) {
+            int key = skewed(random);
+            curve.record(key);
+            smallHits += small.put(key, true) == null ? 0 : 1;
+            largeHits += large.put(key, true) == null ? 0 : 1;
+        }
+        assertThat(curve.hitRatio(100)).isCloseTo((double) smallHits / accesses, within(0.01));
+        assertThat(curve.hitRatio(1_000)).isCloseTo((double) largeHits / accesses, within(0.01));
+    }
+
+    @Test
+    void sampledKeys() {
+        MissRatioCurve curve = new MissRatioCurve(0.1);
+        Map<Integer, Boolean> lru = lru(1_000);
+        int hits = 0;
+        Random random = new Random(0);
+        int accesses = 500_000;
+        for (int i = 0; i < accesses; i++) {
+            int key = skewed(random);
+            curve.record(key);
+            hits += lru.put(key, true) == null ? 0 : 1;
+        }
+        assertThat(curve.samplingRate()).isCloseTo(0.1, within(1e-9));
+        assertThat(curve.hitRatio(1_000)).isCloseTo((double) hits / accesses, within(0.05));
+    }
+
+    @Test
+    void boundsSampledKeys() {
+        MissRatioCurve curve = new MissRatioCurve(1, 256);
+        for (int pass = 0; pass < 20; pass++) {
+            for (int key = 0; key < 10_000; key++) {
+                curve.record(key);
+            }
+        }
+        assertThat(curve.sampledKeys()).isLessThanOrEqualTo(256);
+        assertThat(curve.samplingRate()).isLessThan(256.0 / 10_000);
+        assertThat(curve.hitRatio(5_000)).isCloseTo(0, within(0.05));
+        assertThat(curve.hitRatio(20_000)).isCloseTo(0.95, within(0.05));
+    }
+
+    @Test
+    void invalidSamplingRate() {
+        assertThatLoggableExceptionThrownBy(() -> new MissRatioCurve(0))
+                .isInstanceOf(SafeIllegalArgumentException.class)
+                .hasLogMessage("Sampling rate must be in (0, 1]");
+        assertThatLoggableExceptionThrownBy(() -> new MissRatioCurve(1.5))
+                .isInstanceOf(SafeIllegalArgumentException.class)
+                .hasLogMessage("Sampling rate must be in (0, 1]");
+    }
+
+    /** Returns keys from a heavy tailed distribution over roughly 100,000 keys. */
+    private static int skewed(Random random) {
+        return (int) Math.pow(100_000, random.nextDouble());
+    }
+
+    private static Map<Integer, Boolean> lru(int size) {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Boolean> eldest) {
+                return size() > size;
+            }
+        };
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.tritium.microbenchmarks;
+
+import com.palantir.tritium.io.InstrumentedStreams;
+import com.palantir.tritium.metrics.registry.DefaultTaggedMetricRegistry;
+import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Benchmark)
+@SuppressWarnings({"designforextension", "NullAway"})
+public class InstrumentedStreamBenchmark {
+
+    private static final int SIZE = 1024 * 1024;
+
+    @Param({"false", "true"})
+    private boolean instrumented;
+
+    private TaggedMetricRegistry registry;
+    private byte[] bytes;
+    private byte[] buffer;
+
+    @Setup
+    public void setup() {
+        registry = new DefaultTaggedMetricRegistry();
+        bytes = new byte[SIZE];
+        ThreadLocalRandom.current().nextBytes(bytes);
+        buffer = new byte[8192];
+    }
+
+    private InputStream open() {
+        InputStream in = new UnsynchronizedInputStream(bytes);
+        return instrumented ? InstrumentedStreams.input(in, registry, "benchmark") : in;
+    }
+
+    @Benchmark
+    public long readByteAtATime() throws IOException {
+        long sum = 0;
+        try (InputStream in = open()) {
+            int value;
+            while ((value = in.read()) != -1) {
+                sum += value;
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long readBuffered() throws IOException {
+        long total = 0;
+        try (InputStream in = open()) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                total += read;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Unlike {@link java.io.ByteArrayInputStream}, does not synchronize reads, which would otherwise dominate the cost
+     * of reading a byte once the stream is wrapped and the lock can no longer be coarsened.
+     */
+    private static final class UnsynchronizedInputStream extends InputStream {
+        private final byte[] bytes;
+        private int position;
+
+        UnsynchronizedInputStream(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public int read() {
+            return position < bytes.length ? bytes[position++] & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] buffer, int off, int len) {
+            if (position >= bytes.length) {
+                return -1;
+            }
+            int count = Math.min(len, bytes.length - position);
+            System.arraycopy(bytes, position, buffer, off, count);
+            position += count;
+            return count;
+        }
+    }
+
+    public static void main(String[] _args) throws Exception {
+        Options opt = new OptionsBuilder()
+                .include(InstrumentedStreamBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(opt).run();
+    }
+}
@@ -16,7 +16,11 @@
 
 package com.palantir.tritium.microbenchmarks;
 
+import com.codahale.metrics.Timer;
+import com.palantir.tritium.metrics.registry.DefaultTaggedMetricRegistry;
+import com.palantir.tritium.metrics.registry.MetricLookup;
 import com.palantir.tritium.metrics.registry.MetricName;
+import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
 import java.util.concurrent.TimeUnit;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
@@ -41,6 +45,10 @@ import org.openjdk.jmh.runner.options.OptionsBuilder;
 @SuppressWarnings({"designforextension", "NullAway"})
 public class MetricNameBenchmark {
 
+    private final TaggedMetricRegistry registry = new DefaultTaggedMetricRegistry();
+    private final String serviceName = "someService";
+    private final String endpoint = "someEndpoint";
+
     @Benchmark
     public MetricName benchmarkName3Tags() {
         return MetricName.builder()
@@ -85,6 +93,30 @@ public class MetricNameBenchmark {
                 .build();
     }
 
+    @Benchmark
+    public Timer benchmarkRegistryLookupWithBuilder() {
+        return registry.timer(MetricName.builder()
+                .safeName("instrumentation.invocation")
+                .putSafeTags("service-name", serviceName)
+                .putSafeTags("endpoint", endpoint)
+                .putSafeTags("result", "success")
+                .putSafeTags("libraryName", "tritium")
+                .putSafeTags("libraryVersion", "1.2.3")
+                .build());
+    }
+
+    @Benchmark
+    public Timer benchmarkRegistryLookupWithMetricLookup() {
+        return MetricLookup.forCurrentThread()
+                .safeName("instrumentation.invocation")
+                .putSafeTags("service-name", serviceName)
+                .putSafeTags("endpoint", endpoint)
+                .putSafeTags("result", "success")
+                .putSafeTags("libraryName", "tritium")
+                .putSafeTags("libraryVersion", "1.2.3")
+                .timer(registry);
+    }
+
     public static void main(String[] _args) throws Exception {
         Options opt = new OptionsBuilder()
                 .include(MetricNameBenchmark.class.getSimpleName())
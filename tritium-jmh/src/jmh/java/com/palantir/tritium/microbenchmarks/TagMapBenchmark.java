@@ -0,0 +1,105 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.tritium.microbenchmarks;
+
+import com.palantir.tritium.metrics.registry.MetricName;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Benchmark)
+@SuppressWarnings({"designforextension", "NullAway"})
+public class TagMapBenchmark {
+
+    @Param({"1", "2", "4", "8", "16", "32"})
+    private int size;
+
+    private String[] keys;
+    private Map<String, String> tags;
+    private Map<String, String> equalTags;
+    private Map<String, String> differentTags;
+
+    @Setup
+    public void setup() {
+        keys = new String[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = "tag" + i;
+        }
+        tags = tags(-1);
+        // Built separately so that equality is not short-circuited by identity
+        equalTags = tags(-1);
+        differentTags = tags(size / 2);
+    }
+
+    private Map<String, String> tags(int differentIndex) {
+        MetricName.Builder builder = MetricName.builder().safeName("test");
+        for (int i = 0; i < size; i++) {
+            builder.putSafeTags(keys[i], i == differentIndex ? "other" : "value" + i);
+        }
+        return builder.build().safeTags();
+    }
+
+    @Benchmark
+    public void get(Blackhole blackhole) {
+        for (String key : keys) {
+            blackhole.consume(tags.get(key));
+        }
+    }
+
+    @Benchmark
+    public boolean getMissing() {
+        return tags.containsKey("missing");
+    }
+
+    @Benchmark
+    public boolean equalsEqual() {
+        return tags.equals(equalTags);
+    }
+
+    @Benchmark
+    public boolean equalsDifferent() {
+        return tags.equals(differentTags);
+    }
+
+    public static void main(String[] _args) throws Exception {
+        Options opt = new OptionsBuilder()
+                .include(TagMapBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.tritium.io;
+
+import com.codahale.metrics.Meter;
+import com.google.common.annotations.VisibleForTesting;
+import com.palantir.logsafe.Preconditions;
+
+/**
+ * Accumulates the bytes transferred by a single stream in a plain field and marks the shared {@link Meter} once a
+ * threshold is reached, or when flushed, rather than on every call. Marking a meter updates a
+ * {@link java.util.concurrent.atomic.LongAdder} and may tick its moving averages, which is significant relative to
+ * reading or writing a single byte. Like the streams which use it, this class is not thread safe.
+ */
+final class BatchedMeter {
+    @VisibleForTesting
+    static final long THRESHOLD_BYTES = 64 * 1024;
+
+    private final Meter meter;
+    private long pending;
+
+    BatchedMeter(Meter meter) {
+        this.meter = Preconditions.checkNotNull(meter, "meter");
+    }
+
+    void mark(long bytes) {
+        pending += bytes;
+        if (pending >= THRESHOLD_BYTES) {
+            flush();
+        }
+    }
+
+    void flush() {
+        if (pending > 0) {
+            meter.mark(pending);
+            pending = 0;
+        }
+    }
+}
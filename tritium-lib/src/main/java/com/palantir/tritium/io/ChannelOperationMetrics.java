@@ -0,0 +1,53 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.tritium.io;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
+import com.palantir.logsafe.Preconditions;
+import java.util.concurrent.TimeUnit;
+
+/** Records the bytes transferred by, and the duration of, operations in one direction of an instrumented channel. */
+final class ChannelOperationMetrics {
+    private final Meter bytes;
+    private final Timer duration;
+
+    ChannelOperationMetrics(Meter bytes, Timer duration) {
+        this.bytes = Preconditions.checkNotNull(bytes, "bytes");
+        this.duration = Preconditions.checkNotNull(duration, "duration");
+    }
+
+    static ChannelOperationMetrics reads(IoStreamMetrics metrics, String type) {
+        return new ChannelOperationMetrics(metrics.read(type), metrics.readDuration(type));
+    }
+
+    static ChannelOperationMetrics writes(IoStreamMetrics metrics, String type) {
+        return new ChannelOperationMetrics(metrics.write(type), metrics.writeDuration(type));
+    }
+
+    /**
+     * Records an operation which started at the given time.
+     * @param startNanos value of {@link System#nanoTime()} before the operation started
+     * @param bytesTransferred number of bytes transferred, or -1 if end-of-stream or the operation failed
+     */
+    void record(long startNanos, long bytesTransferred) {
+        duration.update(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        if (bytesTransferred > 0) {
+            bytes.mark(bytesTransferred);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.tritium.io;
+
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.SafeArg;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Records the uncompressed bytes written to, and the CPU time spent in, a compressing stream. The compressed bytes
+ * are recorded by an {@link InstrumentedOutputStream} between the compressing stream and the underlying stream.
+ */
+final class CompressingOutputStream extends ForwardingOutputStream {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final CompressionInstrumentation instrumentation;
+    private final BatchedMeter raw;
+    private long startCpuTimeNanos;
+    // Accumulated and recorded once on close, as recording each call would cost more than small writes
+    private long cpuTimeNanos;
+    private boolean cpuTimeRecorded;
+
+    private CompressingOutputStream(OutputStream compressing, CompressionInstrumentation instrumentation) {
+        super(compressing);
+        this.instrumentation = instrumentation;
+        this.raw = new BatchedMeter(instrumentation.raw());
+    }
+
+    static OutputStream gzip(OutputStream out, CompressionInstrumentation instrumentation, int level)
+            throws IOException {
+        Preconditions.checkArgument(
+                level == Deflater.DEFAULT_COMPRESSION
+                        || (level >= Deflater.NO_COMPRESSION && level <= Deflater.BEST_COMPRESSION),
+                "Invalid compression level",
+                SafeArg.of("level", level));
+        OutputStream compressed = new InstrumentedOutputStream(out, instrumentation.compressed());
+        return new CompressingOutputStream(new LeveledGzipOutputStream(compressed, level), instrumentation);
+    }
+
+    @Override
+    protected void before(long bytesToWrite) {
+        super.before(bytesToWrite);
+        startCpuTimeNanos = instrumentation.cpuTimeNanos();
+    }
+
+    @Override
+    protected void after(long bytesWritten) {
+        cpuTimeNanos += instrumentation.cpuTimeSince(startCpuTimeNanos);
+        raw.mark(bytesWritten);
+        super.after(bytesWritten);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        long startCpu = instrumentation.cpuTimeNanos();
+        try {
+            output().flush();
+        } finally {
+            cpuTimeNanos += instrumentation.cpuTimeSince(startCpu);
+            raw.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        // Closing finishes compression, which may take significant CPU time for the final block
+        long startCpu = instrumentation.cpuTimeNanos();
+        try {
+            output().close();
+        } finally {
+            cpuTimeNanos += instrumentation.cpuTimeSince(startCpu);
+            raw.flush();
+            if (!cpuTimeRecorded) {
+                cpuTimeRecorded = true;
+                instrumentation.recordCpuTime(cpuTimeNanos);
+            }
+        }
+    }
+
+    private static final class LeveledGzipOutputStream extends GZIPOutputStream {
+        LeveledGzipOutputStream(OutputStream out, int level) throws IOException {
+            super(out, BUFFER_SIZE);
+            def.setLevel(level);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.tritium.io;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
+import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.TimeUnit;
+
+/** Metrics shared by the compressing or decompressing streams of a single type. */
+final class CompressionInstrumentation {
+    static final String COMPRESS = "compress";
+    static final String DECOMPRESS = "decompress";
+
+    private static final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+    private final Meter raw;
+    private final Meter compressed;
+    private final Timer cpuTime;
+    private final boolean measureCpuTime;
+
+    private CompressionInstrumentation(Meter raw, Meter compressed, Timer cpuTime, boolean measureCpuTime) {
+        this.raw = raw;
+        this.compressed = compressed;
+        this.cpuTime = cpuTime;
+        this.measureCpuTime = measureCpuTime;
+    }
+
+    /**
+     * Returns instrumentation for streams of the given type and operation. Measuring CPU time reads the thread CPU
+     * clock twice per call, so it is only done when {@code measureCpuTime} is set.
+     */
+    static CompressionInstrumentation of(
+            TaggedMetricRegistry registry, String type, String operation, boolean measureCpuTime) {
+        IoCompressionMetrics metrics = IoCompressionMetrics.of(registry);
+        Meter raw = metrics.raw().type(type).operation(operation).build();
+        Meter compressed = metrics.compressed().type(type).operation(operation).build();
+        registry.gauge(
+                metrics.ratio().type(type).operation(operation).buildMetricName(),
+                (Gauge<Double>) () -> ratio(raw.getCount(), compressed.getCount()));
+        return new CompressionInstrumentation(
+                raw,
+                compressed,
+                metrics.cpuTime().type(type).operation(operation).build(),
+                measureCpuTime && threads.isCurrentThreadCpuTimeSupported());
+    }
+
+    static double ratio(long rawBytes, long compressedBytes) {
+        return compressedBytes == 0 ? 0 : (double) rawBytes / compressedBytes;
+    }
+
+    Meter raw() {
+        return raw;
+    }
+
+    Meter compressed() {
+        return compressed;
+    }
+
+    /** Returns the CPU time of the current thread in nanoseconds, or -1 if it is not measured. */
+    long cpuTimeNanos() {
+        return measureCpuTime ? threads.getCurrentThreadCpuTime() : -1L;
+    }
+
+    /**
+     * Returns the CPU time used by the current thread since the given value of {@link #cpuTimeNanos()}, or zero if it
+     * is not measured.
+     */
+    long cpuTimeSince(long startCpuTimeNanos) {
+        if (startCpuTimeNanos < 0) {
+            return 0L;
+        }
+        long endCpuTimeNanos = cpuTimeNanos();
+        return endCpuTimeNanos < 0 ? 0L : endCpuTimeNanos - startCpuTimeNanos;
+    }
+
+    /** Records the CPU time used by a single stream over its lifetime. */
+    void recordCpuTime(long cpuTimeNanos) {
+        if (measureCpuTime) {
+            cpuTime.update(cpuTimeNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+}
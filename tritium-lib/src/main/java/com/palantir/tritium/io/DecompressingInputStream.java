@@ -0,0 +1,83 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.tritium.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Records the uncompressed bytes read from, and the CPU time spent in, a decompressing stream. The compressed bytes
+ * are recorded by an {@link InstrumentedInputStream} between the decompressing stream and the underlying stream.
+ */
+final class DecompressingInputStream extends ForwardingInputStream {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final CompressionInstrumentation instrumentation;
+    private final BatchedMeter raw;
+    private long startCpuTimeNanos;
+    // Accumulated and recorded once per stream, as recording each call would cost more than small reads
+    private long cpuTimeNanos;
+    private boolean cpuTimeRecorded;
+
+    private DecompressingInputStream(InputStream decompressing, CompressionInstrumentation instrumentation) {
+        super(decompressing);
+        this.instrumentation = instrumentation;
+        this.raw = new BatchedMeter(instrumentation.raw());
+    }
+
+    static InputStream gzip(InputStream in, CompressionInstrumentation instrumentation) throws IOException {
+        InputStream compressed = new InstrumentedInputStream(in, instrumentation.compressed());
+        return new DecompressingInputStream(new GZIPInputStream(compressed, BUFFER_SIZE), instrumentation);
+    }
+
+    @Override
+    protected void before(long bytesToRead) {
+        super.before(bytesToRead);
+        startCpuTimeNanos = instrumentation.cpuTimeNanos();
+    }
+
+    @Override
+    protected void after(long bytesRead) {
+        cpuTimeNanos += instrumentation.cpuTimeSince(startCpuTimeNanos);
+        if (bytesRead > 0) {
+            raw.mark(bytesRead);
+        } else if (bytesRead == -1) {
+            raw.flush();
+            recordCpuTime();
+        }
+        super.after(bytesRead);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            raw.flush();
+            recordCpuTime();
+        }
+    }
+
+    /** Records CPU time once, when the stream reaches end-of-stream or is closed, whichever happens first. */
+    private void recordCpuTime() {
+        if (!cpuTimeRecorded) {
+            cpuTimeRecorded = true;
+            instrumentation.recordCpuTime(cpuTimeNanos);
+        }
+    }
+}
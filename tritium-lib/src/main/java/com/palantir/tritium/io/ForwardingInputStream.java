@@ -77,9 +77,9 @@ abstract class ForwardingInputStream extends FilterInputStream {
     @Override
     public int read() throws IOException {
         before(1);
-        int bytesRead = input().read();
-        after(bytesRead);
-        return bytesRead;
+        int value = input().read();
+        after(value == -1 ? -1 : 1);
+        return value;
     }
 
     @Override
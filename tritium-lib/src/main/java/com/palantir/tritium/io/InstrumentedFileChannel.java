@@ -0,0 +1,191 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.tritium.io;
+
+import com.palantir.logsafe.Preconditions;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Instruments reads, writes and transfers of a {@link FileChannel}. Transfers are passed to the delegate with the
+ * other channel untouched, so the operating system may still copy the bytes directly, for example using
+ * {@code sendfile}, provided the other channel is not itself instrumented. Memory mapped access is not instrumented.
+ */
+final class InstrumentedFileChannel extends FileChannel {
+    private final FileChannel channel;
+    private final ChannelOperationMetrics reads;
+    private final ChannelOperationMetrics writes;
+
+    InstrumentedFileChannel(FileChannel channel, ChannelOperationMetrics reads, ChannelOperationMetrics writes) {
+        this.channel = Preconditions.checkNotNull(channel, "channel");
+        this.reads = Preconditions.checkNotNull(reads, "reads");
+        this.writes = Preconditions.checkNotNull(writes, "writes");
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        long startNanos = System.nanoTime();
+        int bytesRead = -1;
+        try {
+            bytesRead = channel.read(dst);
+            return bytesRead;
+        } finally {
+            reads.record(startNanos, bytesRead);
+        }
+    }
+
+    @Override
+    public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+        long startNanos = System.nanoTime();
+        long bytesRead = -1;
+        try {
+            bytesRead = channel.read(dsts, offset, length);
+            return bytesRead;
+        } finally {
+            reads.record(startNanos, bytesRead);
+        }
+    }
+
+    @Override
+    public int read(ByteBuffer dst, long position) throws IOException {
+        long startNanos = System.nanoTime();
+        int bytesRead = -1;
+        try {
+            bytesRead = channel.read(dst, position);
+            return bytesRead;
+        } finally {
+            reads.record(startNanos, bytesRead);
+        }
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        long startNanos = System.nanoTime();
+        int bytesWritten = -1;
+        try {
+            bytesWritten = channel.write(src);
+            return bytesWritten;
+        } finally {
+            writes.record(startNanos, bytesWritten);
+        }
+    }
+
+    @Override
+    public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+        long startNanos = System.nanoTime();
+        long bytesWritten = -1;
+        try {
+            bytesWritten = channel.write(srcs, offset, length);
+            return bytesWritten;
+        } finally {
+            writes.record(startNanos, bytesWritten);
+        }
+    }
+
+    @Override
+    public int write(ByteBuffer src, long position) throws IOException {
+        long startNanos = System.nanoTime();
+        int bytesWritten = -1;
+        try {
+            bytesWritten = channel.write(src, position);
+            return bytesWritten;
+        } finally {
+            writes.record(startNanos, bytesWritten);
+        }
+    }
+
+    @Override
+    public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+        long startNanos = System.nanoTime();
+        long bytesTransferred = -1;
+        try {
+            bytesTransferred = channel.transferTo(position, count, target);
+            return bytesTransferred;
+        } finally {
+            reads.record(startNanos, bytesTransferred);
+        }
+    }
+
+    @Override
+    public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+        long startNanos = System.nanoTime();
+        long bytesTransferred = -1;
+        try {
+            bytesTransferred = channel.transferFrom(src, position, count);
+            return bytesTransferred;
+        } finally {
+            writes.record(startNanos, bytesTransferred);
+        }
+    }
+
+    @Override
+    public long position() throws IOException {
+        return channel.position();
+    }
+
+    @Override
+    public FileChannel position(long newPosition) throws IOException {
+        channel.position(newPosition);
+        return this;
+    }
+
+    @Override
+    public long size() throws IOException {
+        return channel.size();
+    }
+
+    @Override
+    public FileChannel truncate(long size) throws IOException {
+        channel.truncate(size);
+        return this;
+    }
+
+    @Override
+    public void force(boolean metaData) throws IOException {
+        channel.force(metaData);
+    }
+
+    @Override
+    public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+        return channel.map(mode, position, size);
+    }
+
+    @Override
+    public FileLock lock(long position, long size, boolean shared) throws IOException {
+        return channel.lock(position, size, shared);
+    }
+
+    @Override
+    public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+        return channel.tryLock(position, size, shared);
+    }
+
+    @Override
+    protected void implCloseChannel() throws IOException {
+        channel.close();
+    }
+
+    @Override
+    public String toString() {
+        return "InstrumentedFileChannel{" + channel + '}';
+    }
+}
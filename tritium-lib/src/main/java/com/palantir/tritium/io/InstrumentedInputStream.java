@@ -17,22 +17,56 @@
 package com.palantir.tritium.io;
 
 import com.codahale.metrics.Meter;
-import com.palantir.logsafe.Preconditions;
+import java.io.IOException;
 import java.io.InputStream;
+import javax.annotation.Nullable;
 
 final class InstrumentedInputStream extends ForwardingInputStream {
-    private final Meter bytes;
+    private final BatchedMeter bytes;
+
+    @Nullable
+    private final StreamTimer timer;
 
     InstrumentedInputStream(InputStream in, Meter bytes) {
+        this(in, bytes, null);
+    }
+
+    InstrumentedInputStream(InputStream in, Meter bytes, @Nullable StreamTimer timer) {
         super(in);
-        this.bytes = Preconditions.checkNotNull(bytes, "bytes");
+        this.bytes = new BatchedMeter(bytes);
+        this.timer = timer;
+    }
+
+    @Override
+    protected void before(long bytesToRead) {
+        super.before(bytesToRead);
+        if (timer != null) {
+            timer.start();
+        }
     }
 
     @Override
     protected void after(long bytesRead) {
-        if (bytesRead > -1) {
+        if (timer != null) {
+            timer.stop(bytesRead);
+        }
+        if (bytesRead > 0) {
             bytes.mark(bytesRead);
+        } else if (bytesRead == -1) {
+            bytes.flush();
         }
         super.after(bytesRead);
     }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            bytes.flush();
+            if (timer != null) {
+                timer.close();
+            }
+        }
+    }
 }
@@ -17,20 +17,61 @@
 package com.palantir.tritium.io;
 
 import com.codahale.metrics.Meter;
-import com.palantir.logsafe.Preconditions;
+import java.io.IOException;
 import java.io.OutputStream;
+import javax.annotation.Nullable;
 
 final class InstrumentedOutputStream extends ForwardingOutputStream {
-    private final Meter bytes;
+    private final BatchedMeter bytes;
+
+    @Nullable
+    private final StreamTimer timer;
 
     InstrumentedOutputStream(OutputStream in, Meter bytes) {
+        this(in, bytes, null);
+    }
+
+    InstrumentedOutputStream(OutputStream in, Meter bytes, @Nullable StreamTimer timer) {
         super(in);
-        this.bytes = Preconditions.checkNotNull(bytes, "bytes");
+        this.bytes = new BatchedMeter(bytes);
+        this.timer = timer;
+    }
+
+    @Override
+    protected void before(long bytesToWrite) {
+        super.before(bytesToWrite);
+        if (timer != null) {
+            timer.start();
+        }
     }
 
     @Override
     protected void after(long bytesWritten) {
+        if (timer != null) {
+            timer.stop(bytesWritten);
+        }
         this.bytes.mark(bytesWritten);
         super.after(bytesWritten);
     }
+
+    @Override
+    public void flush() throws IOException {
+        try {
+            super.flush();
+        } finally {
+            bytes.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            bytes.flush();
+            if (timer != null) {
+                timer.close();
+            }
+        }
+    }
 }
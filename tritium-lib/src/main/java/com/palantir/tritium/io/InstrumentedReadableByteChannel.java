@@ -0,0 +1,59 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.tritium.io;
+
+import com.palantir.logsafe.Preconditions;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+final class InstrumentedReadableByteChannel implements ReadableByteChannel {
+    private final ReadableByteChannel channel;
+    private final ChannelOperationMetrics reads;
+
+    InstrumentedReadableByteChannel(ReadableByteChannel channel, ChannelOperationMetrics reads) {
+        this.channel = Preconditions.checkNotNull(channel, "channel");
+        this.reads = Preconditions.checkNotNull(reads, "reads");
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        long startNanos = System.nanoTime();
+        int bytesRead = -1;
+        try {
+            bytesRead = channel.read(dst);
+            return bytesRead;
+        } finally {
+            reads.record(startNanos, bytesRead);
+        }
+    }
+
+    @Override
+    public boolean isOpen() {
+        return channel.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    @Override
+    public String toString() {
+        return "InstrumentedReadableByteChannel{" + channel + '}';
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.tritium.io;
+
+import com.palantir.logsafe.Preconditions;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+
+final class InstrumentedSeekableByteChannel implements SeekableByteChannel {
+    private final SeekableByteChannel channel;
+    private final ChannelOperationMetrics reads;
+    private final ChannelOperationMetrics writes;
+
+    InstrumentedSeekableByteChannel(
+            SeekableByteChannel channel, ChannelOperationMetrics reads, ChannelOperationMetrics writes) {
+        this.channel = Preconditions.checkNotNull(channel, "channel");
+        this.reads = Preconditions.checkNotNull(reads, "reads");
+        this.writes = Preconditions.checkNotNull(writes, "writes");
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        long startNanos = System.nanoTime();
+        int bytesRead = -1;
+        try {
+            bytesRead = channel.read(dst);
+            return bytesRead;
+        } finally {
+            reads.record(startNanos, bytesRead);
+        }
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        long startNanos = System.nanoTime();
+        int bytesWritten = -1;
+        try {
+            bytesWritten = channel.write(src);
+            return bytesWritten;
+        } finally {
+            writes.record(startNanos, bytesWritten);
+        }
+    }
+
+    @Override
+    public long position() throws IOException {
+        return channel.position();
+    }
+
+    @Override
+    public SeekableByteChannel position(long newPosition) throws IOException {
+        channel.position(newPosition);
+        return this;
+    }
+
+    @Override
+    public long size() throws IOException {
+        return channel.size();
+    }
+
+    @Override
+    public SeekableByteChannel truncate(long size) throws IOException {
+        channel.truncate(size);
+        return this;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return channel.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    @Override
+    public String toString() {
+        return "InstrumentedSeekableByteChannel{" + channel + '}';
+    }
+}
@@ -19,14 +19,21 @@ package com.palantir.tritium.io;
 import com.google.errorprone.annotations.CompileTimeConstant;
 import com.palantir.logsafe.Safe;
 import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.zip.Deflater;
 
 public final class InstrumentedStreams {
     private InstrumentedStreams() {}
 
     /**
-     * Instruments the provided stream to provide a meter tracking bytes read.
+     * Instruments the provided stream to provide a meter tracking bytes read. Bytes are marked in batches, so the meter
+     * may lag the stream by up to 64 KiB until it reaches end-of-stream or is closed.
      *
      * @param in input
      * @param metrics metric registry
@@ -39,7 +46,8 @@ public final class InstrumentedStreams {
     }
 
     /**
-     * Instruments the provided stream to provide a meter tracking bytes written.
+     * Instruments the provided stream to provide a meter tracking bytes written. Bytes are marked in batches, so the
+     * meter may lag the stream by up to 64 KiB until it is flushed or closed.
      *
      * @param out output
      * @param type type of stream being instrumented, must be compile-time safe tag
@@ -49,4 +57,214 @@ public final class InstrumentedStreams {
             OutputStream out, TaggedMetricRegistry metrics, @Safe @CompileTimeConstant final String type) {
         return new InstrumentedOutputStream(out, IoStreamMetrics.of(metrics).write(type));
     }
+
+    /**
+     * Instruments the provided stream to provide a meter tracking bytes read, as {@link #input(InputStream,
+     * TaggedMetricRegistry, String)}, a timer tracking the latency of each read call, and a histogram of the
+     * throughput of each stream over its lifetime, recorded when the stream is closed. Timing each call reads the
+     * clock twice, so prefer {@link #input(InputStream, TaggedMetricRegistry, String)} for streams which are read a
+     * byte at a time.
+     *
+     * @param in input
+     * @param metrics metric registry
+     * @param type type of stream being instrumented, must be compile-time safe tag
+     * @return instrumented input stream
+     */
+    public static InputStream timedInput(
+            InputStream in, TaggedMetricRegistry metrics, @Safe @CompileTimeConstant final String type) {
+        IoStreamMetrics ioMetrics = IoStreamMetrics.of(metrics);
+        return new InstrumentedInputStream(in, ioMetrics.read(type), StreamTimer.reads(ioMetrics, type));
+    }
+
+    /**
+     * Instruments the provided stream to provide a meter tracking bytes written, as {@link #output(OutputStream,
+     * TaggedMetricRegistry, String)}, a timer tracking the latency of each write call, and a histogram of the
+     * throughput of each stream over its lifetime, recorded when the stream is closed.
+     *
+     * @param out output
+     * @param metrics metric registry
+     * @param type type of stream being instrumented, must be compile-time safe tag
+     * @return instrumented output stream
+     */
+    public static OutputStream timedOutput(
+            OutputStream out, TaggedMetricRegistry metrics, @Safe @CompileTimeConstant final String type) {
+        IoStreamMetrics ioMetrics = IoStreamMetrics.of(metrics);
+        return new InstrumentedOutputStream(out, ioMetrics.write(type), StreamTimer.writes(ioMetrics, type));
+    }
+
+    /**
+     * Returns a stream which gzip compresses bytes written to it into the provided stream, with meters tracking the
+     * uncompressed and compressed bytes, and a gauge of the compression ratio across all streams of the type. Closing
+     * the returned stream closes the provided stream.
+     *
+     * @param out output to write compressed bytes to
+     * @param metrics metric registry
+     * @param type type of stream being instrumented, must be compile-time safe tag
+     * @param level compression level, from 0 to 9, or {@link java.util.zip.Deflater#DEFAULT_COMPRESSION}
+     * @return compressing output stream
+     * @throws IOException if the gzip header cannot be written
+     */
+    public static OutputStream gzipOutput(
+            OutputStream out, TaggedMetricRegistry metrics, @Safe @CompileTimeConstant final String type, int level)
+            throws IOException {
+        return CompressingOutputStream.gzip(
+                out, CompressionInstrumentation.of(metrics, type, CompressionInstrumentation.COMPRESS, false), level);
+    }
+
+    /**
+     * Returns a stream which gzip compresses bytes written to it into the provided stream using the default
+     * compression level.
+     *
+     * @param out output to write compressed bytes to
+     * @param metrics metric registry
+     * @param type type of stream being instrumented, must be compile-time safe tag
+     * @return compressing output stream
+     * @throws IOException if the gzip header cannot be written
+     * @see #gzipOutput(OutputStream, TaggedMetricRegistry, String, int)
+     */
+    public static OutputStream gzipOutput(
+            OutputStream out, TaggedMetricRegistry metrics, @Safe @CompileTimeConstant final String type)
+            throws IOException {
+        return gzipOutput(out, metrics, type, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * Returns a compressing stream as {@link #gzipOutput(OutputStream, TaggedMetricRegistry, String, int)}, which
+     * additionally records the CPU time each stream spends compressing and writing compressed bytes over its lifetime
+     * when it is closed. Measuring CPU time reads the thread CPU clock twice per call, so prefer
+     * {@link #gzipOutput(OutputStream, TaggedMetricRegistry, String, int)} for streams which are written a byte at a
+     * time.
+     *
+     * @param out output to write compressed bytes to
+     * @param metrics metric registry
+     * @param type type of stream being instrumented, must be compile-time safe tag
+     * @param level compression level, from 0 to 9, or {@link java.util.zip.Deflater#DEFAULT_COMPRESSION}
+     * @return compressing output stream
+     * @throws IOException if the gzip header cannot be written
+     */
+    public static OutputStream timedGzipOutput(
+            OutputStream out, TaggedMetricRegistry metrics, @Safe @CompileTimeConstant final String type, int level)
+            throws IOException {
+        return CompressingOutputStream.gzip(
+                out, CompressionInstrumentation.of(metrics, type, CompressionInstrumentation.COMPRESS, true), level);
+    }
+
+    /**
+     * Returns a compressing stream which records its CPU time, using the default compression level.
+     *
+     * @param out output to write compressed bytes to
+     * @param metrics metric registry
+     * @param type type of stream being instrumented, must be compile-time safe tag
+     * @return compressing output stream
+     * @throws IOException if the gzip header cannot be written
+     * @see #timedGzipOutput(OutputStream, TaggedMetricRegistry, String, int)
+     */
+    public static OutputStream timedGzipOutput(
+            OutputStream out, TaggedMetricRegistry metrics, @Safe @CompileTimeConstant final String type)
+            throws IOException {
+        return timedGzipOutput(out, metrics, type, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * Returns a stream which decompresses gzip compressed bytes read from the provided stream, with meters tracking
+     * the compressed and uncompressed bytes, and a gauge of the compression ratio across all streams of the type.
+     *
+     * @param in input to read compressed bytes from
+     * @param metrics metric registry
+     * @param type type of stream being instrumented, must be compile-time safe tag
+     * @return decompressing input stream
+     * @throws IOException if the gzip header cannot be read
+     */
+    public static InputStream gzipInput(
+            InputStream in, TaggedMetricRegistry metrics, @Safe @CompileTimeConstant final String type)
+            throws IOException {
+        return DecompressingInputStream.gzip(
+                in, CompressionInstrumentation.of(metrics, type, CompressionInstrumentation.DECOMPRESS, false));
+    }
+
+    /**
+     * Returns a decompressing stream as {@link #gzipInput(InputStream, TaggedMetricRegistry, String)}, which
+     * additionally records the CPU time each stream spends reading compressed bytes and decompressing over its
+     * lifetime when it reaches end-of-stream or is closed. Measuring CPU time reads the thread CPU clock twice per
+     * call, so prefer {@link #gzipInput(InputStream, TaggedMetricRegistry, String)} for streams which are read a byte
+     * at a time.
+     *
+     * @param in input to read compressed bytes from
+     * @param metrics metric registry
+     * @param type type of stream being instrumented, must be compile-time safe tag
+     * @return decompressing input stream
+     * @throws IOException if the gzip header cannot be read
+     */
+    public static InputStream timedGzipInput(
+            InputStream in, TaggedMetricRegistry metrics, @Safe @CompileTimeConstant final String type)
+            throws IOException {
+        return DecompressingInputStream.gzip(
+                in, CompressionInstrumentation.of(metrics, type, CompressionInstrumentation.DECOMPRESS, true));
+    }
+
+    /**
+     * Instruments the provided channel to provide a meter tracking bytes read and a timer tracking read durations.
+     *
+     * @param channel input channel
+     * @param metrics metric registry
+     * @param type type of channel being instrumented, must be compile-time safe tag
+     * @return instrumented readable channel
+     */
+    public static ReadableByteChannel input(
+            ReadableByteChannel channel, TaggedMetricRegistry metrics, @Safe @CompileTimeConstant final String type) {
+        return new InstrumentedReadableByteChannel(
+                channel, ChannelOperationMetrics.reads(IoStreamMetrics.of(metrics), type));
+    }
+
+    /**
+     * Instruments the provided channel to provide a meter tracking bytes written and a timer tracking write durations.
+     *
+     * @param channel output channel
+     * @param metrics metric registry
+     * @param type type of channel being instrumented, must be compile-time safe tag
+     * @return instrumented writable channel
+     */
+    public static WritableByteChannel output(
+            WritableByteChannel channel, TaggedMetricRegistry metrics, @Safe @CompileTimeConstant final String type) {
+        return new InstrumentedWritableByteChannel(
+                channel, ChannelOperationMetrics.writes(IoStreamMetrics.of(metrics), type));
+    }
+
+    /**
+     * Instruments the provided channel to provide meters tracking bytes read and written, and timers tracking read
+     * and write durations.
+     *
+     * @param channel channel
+     * @param metrics metric registry
+     * @param type type of channel being instrumented, must be compile-time safe tag
+     * @return instrumented seekable channel
+     */
+    public static SeekableByteChannel channel(
+            SeekableByteChannel channel, TaggedMetricRegistry metrics, @Safe @CompileTimeConstant final String type) {
+        IoStreamMetrics ioMetrics = IoStreamMetrics.of(metrics);
+        return new InstrumentedSeekableByteChannel(
+                channel,
+                ChannelOperationMetrics.reads(ioMetrics, type),
+                ChannelOperationMetrics.writes(ioMetrics, type));
+    }
+
+    /**
+     * Instruments the provided file channel to provide meters tracking bytes read and written, and timers tracking
+     * read and write durations. {@link FileChannel#transferTo} and {@link FileChannel#transferFrom} are measured as
+     * reads and writes respectively, and pass the other channel to the delegate untouched so that zero-copy transfers
+     * are preserved when that channel is not instrumented.
+     *
+     * @param channel file channel
+     * @param metrics metric registry
+     * @param type type of channel being instrumented, must be compile-time safe tag
+     * @return instrumented file channel
+     */
+    public static FileChannel channel(
+            FileChannel channel, TaggedMetricRegistry metrics, @Safe @CompileTimeConstant final String type) {
+        IoStreamMetrics ioMetrics = IoStreamMetrics.of(metrics);
+        return new InstrumentedFileChannel(
+                channel,
+                ChannelOperationMetrics.reads(ioMetrics, type),
+                ChannelOperationMetrics.writes(ioMetrics, type));
+    }
 }
@@ -0,0 +1,77 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.tritium.io;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Timer;
+import com.palantir.logsafe.Preconditions;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times the calls made to a single instrumented stream, and records the throughput of the stream over its lifetime
+ * when it is closed. Like the streams which use it, this class is not thread safe.
+ */
+final class StreamTimer {
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final Timer latency;
+    private final Histogram throughput;
+    private final long openNanos;
+    private long callStartNanos;
+    private long totalBytes;
+    private boolean closed;
+
+    StreamTimer(Timer latency, Histogram throughput) {
+        this.latency = Preconditions.checkNotNull(latency, "latency");
+        this.throughput = Preconditions.checkNotNull(throughput, "throughput");
+        this.openNanos = System.nanoTime();
+    }
+
+    static StreamTimer reads(IoStreamMetrics metrics, String type) {
+        return new StreamTimer(metrics.readDuration(type), metrics.readThroughput(type));
+    }
+
+    static StreamTimer writes(IoStreamMetrics metrics, String type) {
+        return new StreamTimer(metrics.writeDuration(type), metrics.writeThroughput(type));
+    }
+
+    void start() {
+        callStartNanos = System.nanoTime();
+    }
+
+    /**
+     * Records completion of the call which most recently started.
+     * @param bytes number of bytes transferred by the call, or -1 if end-of-stream
+     */
+    void stop(long bytes) {
+        latency.update(System.nanoTime() - callStartNanos, TimeUnit.NANOSECONDS);
+        if (bytes > 0) {
+            totalBytes += bytes;
+        }
+    }
+
+    /** Records the throughput of a stream which transferred any bytes, the first time it is closed. */
+    void close() {
+        if (!closed) {
+            closed = true;
+            if (totalBytes > 0) {
+                long elapsedNanos = Math.max(1L, System.nanoTime() - openNanos);
+                throughput.update((long) (totalBytes * NANOS_PER_SECOND / elapsedNanos));
+            }
+        }
+    }
+}
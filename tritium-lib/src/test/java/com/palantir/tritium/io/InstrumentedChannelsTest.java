@@ -0,0 +1,158 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.tritium.io;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.palantir.tritium.metrics.registry.DefaultTaggedMetricRegistry;
+import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+final class InstrumentedChannelsTest {
+
+    @TempDir
+    private Path tempDir;
+
+    private final TaggedMetricRegistry registry = new DefaultTaggedMetricRegistry();
+    private final IoStreamMetrics metrics = IoStreamMetrics.of(registry);
+
+    @Test
+    void readableAndWritableChannels() throws IOException {
+        byte[] bytes = randomBytes(10_000);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ReadableByteChannel in = InstrumentedStreams.input(
+                        Channels.newChannel(new ByteArrayInputStream(bytes)), registry, "in");
+                WritableByteChannel out = InstrumentedStreams.output(Channels.newChannel(output), registry, "out")) {
+            ByteBuffer buffer = ByteBuffer.allocate(1024);
+            while (in.read(buffer) != -1) {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+                buffer.clear();
+            }
+        }
+
+        assertThat(output.toByteArray()).isEqualTo(bytes);
+        assertThat(metrics.read("in").getCount()).isEqualTo(bytes.length);
+        // Nine full reads, one partial read and the end-of-stream read
+        assertThat(metrics.readDuration("in").getCount()).isEqualTo(11);
+        assertThat(metrics.write("out").getCount()).isEqualTo(bytes.length);
+        assertThat(metrics.writeDuration("out").getCount()).isEqualTo(10);
+    }
+
+    @Test
+    void seekableChannel() throws IOException {
+        byte[] bytes = randomBytes(4096);
+        Path file = tempDir.resolve("seekable");
+        try (SeekableByteChannel channel = InstrumentedStreams.channel(
+                Files.newByteChannel(
+                        file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE),
+                registry,
+                "file")) {
+            assertThat(channel.write(ByteBuffer.wrap(bytes))).isEqualTo(bytes.length);
+            assertThat(channel.position(1024)).isSameAs(channel);
+            ByteBuffer buffer = ByteBuffer.allocate(bytes.length);
+            assertThat(channel.read(buffer)).isEqualTo(bytes.length - 1024);
+            assertThat(channel.read(buffer)).isEqualTo(-1);
+            assertThat(channel.truncate(10).size()).isEqualTo(10);
+        }
+
+        assertThat(metrics.write("file").getCount()).isEqualTo(bytes.length);
+        assertThat(metrics.writeDuration("file").getCount()).isOne();
+        assertThat(metrics.read("file").getCount()).isEqualTo(bytes.length - 1024);
+        assertThat(metrics.readDuration("file").getCount()).isEqualTo(2);
+    }
+
+    @Test
+    void fileChannelTransfers() throws IOException {
+        byte[] bytes = randomBytes(1024 * 1024);
+        Path source = Files.write(tempDir.resolve("source"), bytes);
+        Path target = tempDir.resolve("target");
+        Path copy = tempDir.resolve("copy");
+        try (FileChannel in = InstrumentedStreams.channel(FileChannel.open(source), registry, "source");
+                FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            long position = 0;
+            while (position < bytes.length) {
+                position += in.transferTo(position, bytes.length - position, out);
+            }
+        }
+        try (FileChannel in = FileChannel.open(target);
+                FileChannel out = InstrumentedStreams.channel(
+                        FileChannel.open(copy, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE),
+                        registry,
+                        "copy")) {
+            long position = 0;
+            while (position < bytes.length) {
+                position += out.transferFrom(in, position, bytes.length - position);
+            }
+        }
+
+        assertThat(Files.readAllBytes(copy)).isEqualTo(bytes);
+        assertThat(metrics.read("source").getCount()).isEqualTo(bytes.length);
+        assertThat(metrics.readDuration("source").getCount()).isPositive();
+        assertThat(metrics.write("source").getCount()).isZero();
+        assertThat(metrics.write("copy").getCount()).isEqualTo(bytes.length);
+        assertThat(metrics.writeDuration("copy").getCount()).isPositive();
+    }
+
+    @Test
+    void fileChannelPositionalAccess() throws IOException {
+        Path file = tempDir.resolve("positional");
+        try (FileChannel channel = InstrumentedStreams.channel(
+                FileChannel.open(
+                        file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE),
+                registry,
+                "file")) {
+            ByteBuffer[] buffers = {ByteBuffer.allocate(10), ByteBuffer.allocate(20)};
+            assertThat(channel.write(buffers)).isEqualTo(30);
+            assertThat(channel.write(ByteBuffer.allocate(5), 100)).isEqualTo(5);
+            assertThat(channel.position()).isEqualTo(30);
+            assertThat(channel.size()).isEqualTo(105);
+            assertThat(channel.read(ByteBuffer.allocate(50), 80)).isEqualTo(25);
+            assertThat(channel.position(0)).isSameAs(channel);
+            assertThat(channel.read(new ByteBuffer[] {ByteBuffer.allocate(10), ByteBuffer.allocate(10)}))
+                    .isEqualTo(20);
+            channel.force(false);
+        }
+
+        assertThat(metrics.write("file").getCount()).isEqualTo(35);
+        assertThat(metrics.writeDuration("file").getCount()).isEqualTo(2);
+        assertThat(metrics.read("file").getCount()).isEqualTo(45);
+        assertThat(metrics.readDuration("file").getCount()).isEqualTo(2);
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        ThreadLocalRandom.current().nextBytes(bytes);
+        return bytes;
+    }
+}
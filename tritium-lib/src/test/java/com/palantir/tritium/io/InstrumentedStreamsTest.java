@@ -17,21 +17,27 @@
 package com.palantir.tritium.io;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import com.codahale.metrics.ConsoleReporter;
 import com.codahale.metrics.MetricRegistry;
 import com.google.common.collect.Iterables;
 import com.google.common.io.ByteSource;
 import com.google.common.io.ByteStreams;
+import com.palantir.logsafe.exceptions.SafeIllegalArgumentException;
 import com.palantir.tritium.Tagged;
 import com.palantir.tritium.metrics.registry.DefaultTaggedMetricRegistry;
+import com.palantir.tritium.metrics.registry.MetricName;
 import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.Deflater;
 import java.util.zip.GZIPOutputStream;
 import org.junit.jupiter.api.Test;
 
@@ -64,6 +70,191 @@ class InstrumentedStreamsTest {
         assertThat(metrics.write("out").getCount()).isNotZero().isEqualTo(iterations * bytes.length);
     }
 
+    @Test
+    void singleByteReadsAndWrites() throws IOException {
+        TaggedMetricRegistry registry = new DefaultTaggedMetricRegistry();
+        IoStreamMetrics metrics = IoStreamMetrics.of(registry);
+        byte[] bytes = {(byte) 0xFF, 42, 0};
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (InputStream in = InstrumentedStreams.input(new ByteArrayInputStream(bytes), registry, "in");
+                OutputStream out = InstrumentedStreams.output(output, registry, "out")) {
+            int value;
+            while ((value = in.read()) != -1) {
+                out.write(value);
+            }
+        }
+
+        assertThat(output.toByteArray()).isEqualTo(bytes);
+        assertThat(metrics.read("in").getCount()).isEqualTo(bytes.length);
+        assertThat(metrics.write("out").getCount()).isEqualTo(bytes.length);
+    }
+
+    @Test
+    void batchedByteCounts() throws IOException {
+        TaggedMetricRegistry registry = new DefaultTaggedMetricRegistry();
+        IoStreamMetrics metrics = IoStreamMetrics.of(registry);
+        int size = Math.toIntExact(BatchedMeter.THRESHOLD_BYTES);
+        byte[] bytes = new byte[size + 10];
+        InputStream in = InstrumentedStreams.input(new ByteArrayInputStream(bytes), registry, "in");
+        OutputStream out = InstrumentedStreams.output(ByteStreams.nullOutputStream(), registry, "out");
+
+        for (int i = 0; i < size - 1; i++) {
+            out.write(in.read());
+        }
+        assertThat(metrics.read("in").getCount()).isZero();
+        assertThat(metrics.write("out").getCount()).isZero();
+
+        out.write(in.read());
+        assertThat(metrics.read("in").getCount()).isEqualTo(size);
+        assertThat(metrics.write("out").getCount()).isEqualTo(size);
+
+        out.write(in.readNBytes(5));
+        assertThat(metrics.read("in").getCount()).isEqualTo(size);
+        out.flush();
+        assertThat(metrics.write("out").getCount()).isEqualTo(size + 5);
+
+        assertThat(in.readAllBytes()).hasSize(5);
+        assertThat(metrics.read("in").getCount()).isEqualTo(size + 10);
+
+        out.write(new byte[3]);
+        out.close();
+        assertThat(metrics.write("out").getCount()).isEqualTo(size + 8);
+        in.close();
+        assertThat(metrics.read("in").getCount()).isEqualTo(size + 10);
+    }
+
+    @Test
+    void timedStreams() throws IOException {
+        TaggedMetricRegistry registry = new DefaultTaggedMetricRegistry();
+        IoStreamMetrics metrics = IoStreamMetrics.of(registry);
+        byte[] bytes = new byte[10_000];
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        InputStream in = InstrumentedStreams.timedInput(new ByteArrayInputStream(bytes), registry, "in");
+        OutputStream out = InstrumentedStreams.timedOutput(output, registry, "out");
+        byte[] buffer = new byte[1024];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        out.write(1);
+
+        // Nine full reads, one partial read and the end-of-stream read
+        assertThat(metrics.readDuration("in").getCount()).isEqualTo(11);
+        assertThat(metrics.writeDuration("out").getCount()).isEqualTo(11);
+        assertThat(metrics.readThroughput("in").getCount()).isZero();
+        assertThat(metrics.writeThroughput("out").getCount()).isZero();
+
+        in.close();
+        in.close();
+        out.close();
+        assertThat(output.size()).isEqualTo(bytes.length + 1);
+        assertThat(metrics.read("in").getCount()).isEqualTo(bytes.length);
+        assertThat(metrics.write("out").getCount()).isEqualTo(bytes.length + 1);
+        assertThat(metrics.readThroughput("in").getCount()).isOne();
+        assertThat(metrics.readThroughput("in").getSnapshot().getMax()).isPositive();
+        assertThat(metrics.writeThroughput("out").getCount()).isOne();
+    }
+
+    @Test
+    void untimedStreams() throws IOException {
+        TaggedMetricRegistry registry = new DefaultTaggedMetricRegistry();
+        try (InputStream in = InstrumentedStreams.input(new ByteArrayInputStream(new byte[10]), registry, "in")) {
+            assertThat(in.readAllBytes()).hasSize(10);
+        }
+        assertThat(registry.getMetrics().keySet())
+                .extracting(MetricName::safeName)
+                .containsExactly("io.stream.read");
+    }
+
+    @Test
+    void emptyTimedStream() throws IOException {
+        TaggedMetricRegistry registry = new DefaultTaggedMetricRegistry();
+        IoStreamMetrics metrics = IoStreamMetrics.of(registry);
+        InstrumentedStreams.timedInput(new ByteArrayInputStream(new byte[0]), registry, "in")
+                .close();
+        assertThat(metrics.readThroughput("in").getCount()).isZero();
+    }
+
+    @Test
+    void gzipRoundTrip() throws IOException {
+        TaggedMetricRegistry registry = new DefaultTaggedMetricRegistry();
+        IoCompressionMetrics metrics = IoCompressionMetrics.of(registry);
+        byte[] bytes = "compressible ".repeat(10_000).getBytes(StandardCharsets.UTF_8);
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (OutputStream out = InstrumentedStreams.gzipOutput(compressed, registry, "payload", Deflater.BEST_SPEED)) {
+            for (int i = 0; i < bytes.length; i += 1000) {
+                out.write(bytes, i, Math.min(1000, bytes.length - i));
+            }
+        }
+        assertThat(metrics.raw().type("payload").operation("compress").build().getCount())
+                .isEqualTo(bytes.length);
+        assertThat(metrics.compressed().type("payload").operation("compress").build().getCount())
+                .isEqualTo(compressed.size())
+                .isLessThan(bytes.length);
+        assertThat(ratio(registry, metrics.ratio().type("payload").operation("compress")))
+                .isEqualTo((double) bytes.length / compressed.size());
+
+        InputStream source = new ByteArrayInputStream(compressed.toByteArray());
+        try (InputStream in = InstrumentedStreams.gzipInput(source, registry, "payload")) {
+            assertThat(in.readAllBytes()).isEqualTo(bytes);
+        }
+        assertThat(metrics.raw().type("payload").operation("decompress").build().getCount())
+                .isEqualTo(bytes.length);
+        assertThat(metrics.compressed().type("payload").operation("decompress").build().getCount())
+                .isEqualTo(compressed.size());
+        assertThat(ratio(registry, metrics.ratio().type("payload").operation("decompress")))
+                .isGreaterThan(1);
+
+        assertThat(metrics.cpuTime().type("payload").operation("compress").build().getCount())
+                .isZero();
+        assertThat(metrics.cpuTime().type("payload").operation("decompress").build().getCount())
+                .isZero();
+    }
+
+    @Test
+    void timedGzipRecordsCpuTimeOncePerStream() throws IOException {
+        TaggedMetricRegistry registry = new DefaultTaggedMetricRegistry();
+        IoCompressionMetrics metrics = IoCompressionMetrics.of(registry);
+        byte[] bytes = "compressible ".repeat(10_000).getBytes(StandardCharsets.UTF_8);
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (OutputStream out = InstrumentedStreams.timedGzipOutput(compressed, registry, "payload")) {
+            for (byte value : bytes) {
+                out.write(value);
+            }
+            out.flush();
+        }
+        InputStream source = new ByteArrayInputStream(compressed.toByteArray());
+        try (InputStream in = InstrumentedStreams.timedGzipInput(source, registry, "payload")) {
+            int read = 0;
+            while (in.read() != -1) {
+                read++;
+            }
+            assertThat(read).isEqualTo(bytes.length);
+        }
+        assertThat(metrics.raw().type("payload").operation("decompress").build().getCount())
+                .isEqualTo(bytes.length);
+
+        long expected = ManagementFactory.getThreadMXBean().isCurrentThreadCpuTimeSupported() ? 1 : 0;
+        assertThat(metrics.cpuTime().type("payload").operation("compress").build().getCount())
+                .isEqualTo(expected);
+        assertThat(metrics.cpuTime().type("payload").operation("decompress").build().getCount())
+                .isEqualTo(expected);
+    }
+
+    @Test
+    void gzipInvalidLevel() {
+        TaggedMetricRegistry registry = new DefaultTaggedMetricRegistry();
+        assertThatThrownBy(() -> InstrumentedStreams.gzipOutput(new ByteArrayOutputStream(), registry, "payload", 10))
+                .isInstanceOf(SafeIllegalArgumentException.class)
+                .hasMessageContaining("Invalid compression level");
+    }
+
+    private static double ratio(TaggedMetricRegistry registry, IoCompressionMetrics.RatioBuilderBuildStage ratio) {
+        return registry.<Double>gauge(ratio.buildMetricName()).orElseThrow().getValue();
+    }
+
     @Test
     void instrumentedGzip() throws IOException {
         byte[] bytes = new byte[1024];
@@ -0,0 +1,153 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.tritium.metrics.jvm;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Suppliers;
+import com.google.errorprone.annotations.concurrent.GuardedBy;
+import com.palantir.logsafe.logger.SafeLogger;
+import com.palantir.logsafe.logger.SafeLoggerFactory;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Reports heap allocation rates of the process and its most allocating threads, derived from the bytes allocated by
+ * each live thread. Allocated bytes are read for all threads in a single bulk call, and rates are computed from the
+ * change in each thread's allocated bytes between reads.
+ */
+final class AllocationMetrics {
+    private static final SafeLogger log = SafeLoggerFactory.get(AllocationMetrics.class);
+
+    @VisibleForTesting
+    static final int TOP_THREADS = 5;
+
+    private final com.sun.management.ThreadMXBean threads;
+
+    @GuardedBy("this")
+    private Map<Long, Long> previousAllocatedBytes;
+
+    @GuardedBy("this")
+    private long previousNanos;
+
+    @GuardedBy("this")
+    private Sample latest = new Sample(0, new double[TOP_THREADS]);
+
+    @VisibleForTesting
+    AllocationMetrics(com.sun.management.ThreadMXBean threads, long nowNanos) {
+        this.threads = threads;
+        this.previousAllocatedBytes = allocatedBytes();
+        this.previousNanos = nowNanos;
+    }
+
+    static void register(InternalJvmMetrics metrics) {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)
+                || !((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemorySupported()
+                || !((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemoryEnabled()) {
+            log.info("Thread allocated memory is not supported, allocation metrics will not be registered");
+            return;
+        }
+        AllocationMetrics allocation =
+                new AllocationMetrics((com.sun.management.ThreadMXBean) threads, System.nanoTime());
+        // Rates are computed over the interval between samples, so share samples between gauges
+        Supplier<Sample> samples =
+                Suppliers.memoizeWithExpiration(() -> allocation.sample(System.nanoTime()), 5, TimeUnit.SECONDS);
+        metrics.allocationRate(() -> samples.get().rate);
+        for (int i = 0; i < TOP_THREADS; i++) {
+            int rank = i;
+            metrics.allocationThreadRate()
+                    .rank(Integer.toString(rank + 1))
+                    .build(() -> samples.get().threadRates[rank]);
+        }
+    }
+
+    /** Returns allocation rates since the previous sample. */
+    @VisibleForTesting
+    synchronized Sample sample(long nowNanos) {
+        long elapsedNanos = nowNanos - previousNanos;
+        if (elapsedNanos <= 0) {
+            return latest;
+        }
+        Map<Long, Long> allocatedBytes = allocatedBytes();
+        double seconds = elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1);
+        long total = 0;
+        long[] top = new long[TOP_THREADS];
+        for (Map.Entry<Long, Long> entry : allocatedBytes.entrySet()) {
+            // Threads started since the previous sample allocated all of their bytes within the interval
+            long allocated = entry.getValue() - previousAllocatedBytes.getOrDefault(entry.getKey(), 0L);
+            if (allocated > 0) {
+                total += allocated;
+                insert(top, allocated);
+            }
+        }
+        double[] threadRates = new double[TOP_THREADS];
+        for (int i = 0; i < TOP_THREADS; i++) {
+            threadRates[i] = top[i] / seconds;
+        }
+        previousAllocatedBytes = allocatedBytes;
+        previousNanos = nowNanos;
+        latest = new Sample(total / seconds, threadRates);
+        return latest;
+    }
+
+    private Map<Long, Long> allocatedBytes() {
+        long[] ids = threads.getAllThreadIds();
+        long[] allocated = threads.getThreadAllocatedBytes(ids);
+        Map<Long, Long> allocatedBytes = new HashMap<>(ids.length * 2);
+        for (int i = 0; i < ids.length; i++) {
+            // Threads which terminated after getAllThreadIds report -1
+            if (allocated[i] >= 0) {
+                allocatedBytes.put(ids[i], allocated[i]);
+            }
+        }
+        return allocatedBytes;
+    }
+
+    /** Inserts {@code value} into {@code top}, which is sorted in descending order, if it is large enough. */
+    private static void insert(long[] top, long value) {
+        if (value <= top[top.length - 1]) {
+            return;
+        }
+        int index = top.length - 1;
+        while (index > 0 && top[index - 1] < value) {
+            top[index] = top[index - 1];
+            index--;
+        }
+        top[index] = value;
+    }
+
+    @VisibleForTesting
+    static final class Sample {
+        final double rate;
+        final double[] threadRates;
+
+        private Sample(double rate, double[] threadRates) {
+            this.rate = rate;
+            this.threadRates = threadRates;
+        }
+
+        @Override
+        public String toString() {
+            return "Sample{rate=" + rate + ", threadRates=" + Arrays.toString(threadRates) + '}';
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.tritium.metrics.jvm;
+
+import com.google.common.base.CharMatcher;
+import com.google.common.collect.MapMaker;
+import com.palantir.logsafe.SafeArg;
+import com.palantir.logsafe.logger.SafeLogger;
+import com.palantir.logsafe.logger.SafeLoggerFactory;
+import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
+import com.sun.management.GarbageCollectionNotificationInfo;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+/**
+ * Report the duration of each garbage collection from the notifications published by garbage collector beans, which
+ * unlike the cumulative collection time reported by {@code jvm.gc.time} preserves the distribution of pause lengths.
+ */
+final class GcPauseMetrics {
+    private static final SafeLogger log = SafeLoggerFactory.get(GcPauseMetrics.class);
+    private static final CharMatcher WHITESPACE = CharMatcher.whitespace();
+
+    /**
+     * Registries which already have listeners on every collector, as unlike replacing gauges a second listener would
+     * record each pause twice. Weakly keyed by identity so that registries may still be collected.
+     */
+    private static final Set<TaggedMetricRegistry> registered =
+            Collections.newSetFromMap(new MapMaker().weakKeys().makeMap());
+
+    static void register(TaggedMetricRegistry registry) {
+        if (!registered.add(registry)) {
+            return;
+        }
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (collector instanceof NotificationEmitter) {
+                NotificationEmitter emitter = (NotificationEmitter) collector;
+                emitter.addNotificationListener(
+                        new Listener(registry, emitter),
+                        notification -> GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(
+                                notification.getType()),
+                        null);
+            } else {
+                log.info(
+                        "Garbage collector does not publish notifications, pauses will not be reported",
+                        SafeArg.of("collector", collector.getName()));
+            }
+        }
+    }
+
+    /**
+     * Listeners outlive the registries they report to, so registries are only weakly referenced and listeners
+     * unregister themselves once their registry has been collected.
+     */
+    private static final class Listener implements NotificationListener {
+        private final WeakReference<TaggedMetricRegistry> registry;
+        private final NotificationEmitter emitter;
+
+        Listener(TaggedMetricRegistry registry, NotificationEmitter emitter) {
+            this.registry = new WeakReference<>(registry);
+            this.emitter = emitter;
+        }
+
+        @Override
+        public void handleNotification(Notification notification, Object _handback) {
+            TaggedMetricRegistry metricRegistry = registry.get();
+            if (metricRegistry == null) {
+                try {
+                    emitter.removeNotificationListener(this);
+                } catch (ListenerNotFoundException e) {
+                    log.debug("Listener was already removed", e);
+                }
+                return;
+            }
+            GarbageCollectionNotificationInfo info =
+                    GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+            InternalJvmMetrics.of(metricRegistry)
+                    .gcPause(WHITESPACE.replaceFrom(info.getGcName(), '-'))
+                    .update(info.getGcInfo().getDuration(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private GcPauseMetrics() {
+        throw new UnsupportedOperationException();
+    }
+}
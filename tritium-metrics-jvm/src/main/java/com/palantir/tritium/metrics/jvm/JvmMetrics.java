@@ -68,6 +68,8 @@ public final class JvmMetrics {
         Jdk9CompatibleFileDescriptorRatioGauge.register(metrics);
         OperatingSystemMetrics.register(registry);
         SafepointMetrics.register(registry);
+        GcPauseMetrics.register(registry);
+        AllocationMetrics.register(metrics);
         registerAttributes(metrics);
         registerJvmBufferPools(registry);
         registerClassLoading(metrics);
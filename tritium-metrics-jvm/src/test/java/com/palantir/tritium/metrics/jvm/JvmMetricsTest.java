@@ -20,16 +20,19 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import com.codahale.metrics.Gauge;
 import com.codahale.metrics.RatioGauge;
+import com.codahale.metrics.Timer;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.MoreCollectors;
 import com.palantir.tritium.metrics.jvm.InternalJvmMetrics.DnsCacheTtlSeconds_Cache;
 import com.palantir.tritium.metrics.registry.DefaultTaggedMetricRegistry;
 import com.palantir.tritium.metrics.registry.MetricName;
 import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
+import com.sun.management.GarbageCollectionNotificationInfo;
 import java.io.Closeable;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.lang.management.MemoryMXBean;
 import java.lang.management.MemoryUsage;
 import java.util.ArrayList;
@@ -38,6 +41,12 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import javax.management.ListenerNotFoundException;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
 import javax.management.ObjectName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
@@ -45,6 +54,8 @@ import org.junit.jupiter.api.io.TempDir;
 final class JvmMetricsTest {
 
     private static final ImmutableSet<String> EXPECTED_NAMES = ImmutableSet.of(
+            "jvm.allocation.rate",
+            "jvm.allocation.thread.rate",
             "jvm.attribute.uptime",
             "jvm.buffers.direct.capacity",
             "jvm.buffers.direct.count",
@@ -166,6 +177,98 @@ final class JvmMetricsTest {
                 .satisfies(gauge -> assertThat(gauge.getValue()).isNotNegative());
     }
 
+    @Test
+    void testAllocationRates() {
+        AllocationMetrics allocation = new AllocationMetrics(
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean(), 0);
+        List<byte[]> allocated = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            allocated.add(new byte[1024 * 1024]);
+        }
+        assertThat(allocated).hasSize(10);
+
+        AllocationMetrics.Sample sample = allocation.sample(TimeUnit.SECONDS.toNanos(2));
+        assertThat(sample.rate).isGreaterThanOrEqualTo(5 * 1024 * 1024);
+        assertThat(sample.threadRates).hasSize(AllocationMetrics.TOP_THREADS);
+        assertThat(sample.threadRates[0])
+                .isGreaterThanOrEqualTo(5 * 1024 * 1024)
+                .isLessThanOrEqualTo(sample.rate);
+        for (int i = 1; i < sample.threadRates.length; i++) {
+            assertThat(sample.threadRates[i]).isNotNegative().isLessThanOrEqualTo(sample.threadRates[i - 1]);
+        }
+        assertThat(allocation.sample(TimeUnit.SECONDS.toNanos(2))).isSameAs(sample);
+    }
+
+    @Test
+    void testAllocationRateGauges() {
+        TaggedMetricRegistry registry = new DefaultTaggedMetricRegistry();
+        JvmMetrics.register(registry);
+        InternalJvmMetrics metrics = InternalJvmMetrics.of(registry);
+        assertThat(registry.gauge(InternalJvmMetrics.allocationRateMetricName()))
+                .hasValueSatisfying(gauge -> assertThat((Double) gauge.getValue()).isNotNegative());
+        for (int rank = 1; rank <= AllocationMetrics.TOP_THREADS; rank++) {
+            assertThat(registry.gauge(metrics.allocationThreadRate()
+                            .rank(Integer.toString(rank))
+                            .buildMetricName()))
+                    .hasValueSatisfying(gauge -> assertThat((Double) gauge.getValue()).isNotNegative());
+        }
+    }
+
+    @Test
+    @SuppressWarnings("JdkObsolete") // SortedMap is part of Metrics API
+    void testGcPause() throws InterruptedException {
+        TaggedMetricRegistry registry = new DefaultTaggedMetricRegistry();
+        JvmMetrics.register(registry);
+        System.gc();
+        // Notifications are delivered asynchronously
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (pauses(registry).isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(pauses(registry)).isNotEmpty().allSatisfy((name, timer) -> {
+            assertThat(name.safeTags()).containsKey("collector");
+            assertThat(name.safeTags().get("collector")).doesNotContainAnyWhitespaces();
+            assertThat(timer.getCount()).isPositive();
+        });
+    }
+
+    @Test
+    void testGcPauseRecordedOnceWhenRegisteredTwice() throws InterruptedException {
+        // Count notifications from before registration, so that every recorded pause is also counted here
+        AtomicLong notifications = new AtomicLong();
+        NotificationListener listener = (_notification, _handback) -> notifications.incrementAndGet();
+        List<NotificationEmitter> emitters = ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .filter(NotificationEmitter.class::isInstance)
+                .map(NotificationEmitter.class::cast)
+                .collect(Collectors.toList());
+        emitters.forEach(emitter -> emitter.addNotificationListener(
+                listener,
+                notification -> GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(
+                        notification.getType()),
+                null));
+        try {
+            TaggedMetricRegistry registry = new DefaultTaggedMetricRegistry();
+            JvmMetrics.register(registry);
+            JvmMetrics.register(registry);
+            System.gc();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (pauseCount(registry) == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            // Allow a duplicate listener time to record the same notifications
+            Thread.sleep(100);
+            assertThat(pauseCount(registry)).isPositive().isLessThanOrEqualTo(notifications.get());
+        } finally {
+            for (NotificationEmitter emitter : emitters) {
+                try {
+                    emitter.removeNotificationListener(listener);
+                } catch (ListenerNotFoundException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+    }
+
     @Test
     @SuppressWarnings("JdkObsolete") // SortedMap is part of Metrics API
     void testUptimeHasExtraTags() {
@@ -249,6 +352,17 @@ final class JvmMetricsTest {
                 .hasValueSatisfying(gauge -> assertThat(gauge.getValue()).isEqualTo(0));
     }
 
+    @SuppressWarnings("JdkObsolete")
+    private static Map<MetricName, Timer> pauses(TaggedMetricRegistry metrics) {
+        return metrics.getMetrics().entrySet().stream()
+                .filter(entry -> entry.getKey().safeName().equals("jvm.gc.pause"))
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> (Timer) entry.getValue()));
+    }
+
+    private static long pauseCount(TaggedMetricRegistry metrics) {
+        return pauses(metrics).values().stream().mapToLong(Timer::getCount).sum();
+    }
+
     @SuppressWarnings("JdkObsolete")
     private static <T> T find(TaggedMetricRegistry metrics, MetricName baseName, Class<T> type) {
         return metrics.getMetrics().entrySet().stream()
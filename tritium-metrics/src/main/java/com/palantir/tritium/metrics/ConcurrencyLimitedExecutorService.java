@@ -0,0 +1,292 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.tritium.metrics;
+
+import com.codahale.metrics.Meter;
+import com.google.common.annotations.VisibleForTesting;
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.SafeArg;
+import com.palantir.logsafe.logger.SafeLogger;
+import com.palantir.logsafe.logger.SafeLoggerFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
+
+/**
+ * An {@link ExecutorService} which limits the number of tasks running concurrently on its delegate, adapting the
+ * limit to observed task durations using additive-increase/multiplicative-decrease (AIMD).
+ *
+ * <p>The limit is reduced when a task takes longer than the latency threshold, at most once for the tasks in flight
+ * at the time, so that a latency spike affecting many concurrent tasks backs off once rather than once per task. The
+ * limit grows by one when a task completes within the threshold while at least half of the limit was in use. Tasks
+ * submitted while the limit is reached are queued, up to the maximum limit, and subsequently rejected with a
+ * {@link RejectedExecutionException}.
+ *
+ * <p>Queued tasks are handed to the delegate by whichever thread next releases or acquires a permit. If the delegate
+ * rejects a queued task, the rejection is marked on the rejected meter and reported through the task's
+ * {@link java.util.concurrent.Future} rather than to the unrelated caller that happened to dispatch it.
+ */
+final class ConcurrencyLimitedExecutorService extends AbstractExecutorService {
+
+    private static final SafeLogger log = SafeLoggerFactory.get(ConcurrencyLimitedExecutorService.class);
+
+    @VisibleForTesting
+    static final double BACKOFF_RATIO = 0.9;
+
+    private final ExecutorService delegate;
+    private final long latencyThresholdNanos;
+    private final int maxLimit;
+    private final Meter rejected;
+
+    private final AtomicInteger limit;
+    /** Number of times the limit has been reduced, recorded as each task starts to back off once per spike. */
+    private final AtomicLong backoffs = new AtomicLong();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+
+    private volatile boolean shutdown = false;
+
+    ConcurrencyLimitedExecutorService(
+            ExecutorService delegate, Duration latencyThreshold, int maxLimit, Meter rejected) {
+        Preconditions.checkArgument(!latencyThreshold.isNegative(), "Latency threshold must not be negative");
+        Preconditions.checkArgument(maxLimit > 0, "Maximum limit must be positive", SafeArg.of("maxLimit", maxLimit));
+        this.delegate = delegate;
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.maxLimit = maxLimit;
+        this.rejected = rejected;
+        this.limit = new AtomicInteger(maxLimit);
+    }
+
+    /** Returns the current concurrency limit. */
+    int limit() {
+        return limit.get();
+    }
+
+    @VisibleForTesting
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    @VisibleForTesting
+    long backoffs() {
+        return backoffs.get();
+    }
+
+    @VisibleForTesting
+    int pending() {
+        return pendingCount.get();
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        Preconditions.checkNotNull(task, "task");
+        if (shutdown) {
+            throw new RejectedExecutionException("Executor has been shut down");
+        }
+        if (tryAcquire()) {
+            dispatch(task);
+            return;
+        }
+        if (pendingCount.incrementAndGet() > maxLimit) {
+            pendingCount.decrementAndGet();
+            throw new RejectedExecutionException("Concurrency limit exceeded");
+        }
+        pending.add(task);
+        // A running task may have completed between failing to acquire a permit and queueing
+        drain(task);
+    }
+
+    private boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit.get()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void dispatch(Runnable task) {
+        try {
+            delegate.execute(new LimitedRunnable(task));
+        } catch (RuntimeException | Error e) {
+            inFlight.decrementAndGet();
+            throw e;
+        }
+    }
+
+    /**
+     * Dispatches queued tasks while permits are available. Only a rejection of {@code submitted}, the task queued by
+     * the calling thread, is thrown to the caller.
+     */
+    private void drain(@Nullable Runnable submitted) {
+        // Permits are released before checking for pending work, so either this thread or the thread queueing a task
+        // will observe both the task and an available permit.
+        while (!pending.isEmpty() && tryAcquire()) {
+            Runnable next = pending.poll();
+            if (next == null) {
+                inFlight.decrementAndGet();
+                continue;
+            }
+            pendingCount.decrementAndGet();
+            try {
+                dispatch(next);
+            } catch (RejectedExecutionException e) {
+                if (next == submitted) {
+                    throw e;
+                }
+                reject(next, e);
+            }
+        }
+    }
+
+    private void reject(Runnable task, RejectedExecutionException exception) {
+        rejected.mark();
+        if (task instanceof LimitedFutureTask) {
+            ((LimitedFutureTask<?>) task).reject(exception);
+        } else {
+            log.warn("Delegate executor rejected a queued task", exception);
+        }
+    }
+
+    private void onComplete(long durationNanos, int inFlightAtStart, long backoffsAtStart) {
+        update(durationNanos, inFlightAtStart, backoffsAtStart);
+        inFlight.decrementAndGet();
+        drain(null);
+        if (shutdown && pending.isEmpty()) {
+            delegate.shutdown();
+        }
+    }
+
+    @VisibleForTesting
+    void update(long durationNanos, int inFlightAtStart, long backoffsAtStart) {
+        if (durationNanos > latencyThresholdNanos) {
+            // Tasks which started before the most recent reduction were already accounted for by it
+            if (backoffs.compareAndSet(backoffsAtStart, backoffsAtStart + 1)) {
+                limit.updateAndGet(current -> Math.max(1, (int) (current * BACKOFF_RATIO)));
+            }
+        } else {
+            limit.updateAndGet(current -> inFlightAtStart * 2 >= current ? Math.min(maxLimit, current + 1) : current);
+        }
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Runnable runnable, T value) {
+        return new LimitedFutureTask<>(runnable, value);
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Callable<T> callable) {
+        return new LimitedFutureTask<>(callable);
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+        // Queued tasks are still dispatched, the delegate is shut down once they have been handed off
+        if (pending.isEmpty()) {
+            delegate.shutdown();
+        }
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown = true;
+        List<Runnable> tasks = new ArrayList<>();
+        Runnable task;
+        while ((task = pending.poll()) != null) {
+            pendingCount.decrementAndGet();
+            tasks.add(task);
+        }
+        tasks.addAll(delegate.shutdownNow());
+        return tasks;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return shutdown && pending.isEmpty() && delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+
+    @Override
+    public String toString() {
+        return "ConcurrencyLimitedExecutorService{delegate=" + delegate + ", limit=" + limit + '}';
+    }
+
+    private final class LimitedRunnable implements Runnable {
+        private final Runnable task;
+
+        LimitedRunnable(Runnable task) {
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            int inFlightAtStart = inFlight.get();
+            long backoffsAtStart = backoffs.get();
+            long startNanos = System.nanoTime();
+            try {
+                task.run();
+            } finally {
+                onComplete(System.nanoTime() - startNanos, inFlightAtStart, backoffsAtStart);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "LimitedRunnable{" + task + '}';
+        }
+    }
+
+    private static final class LimitedFutureTask<T> extends FutureTask<T> {
+        LimitedFutureTask(Runnable runnable, T value) {
+            super(runnable, value);
+        }
+
+        LimitedFutureTask(Callable<T> callable) {
+            super(callable);
+        }
+
+        void reject(RejectedExecutionException exception) {
+            setException(exception);
+        }
+    }
+}
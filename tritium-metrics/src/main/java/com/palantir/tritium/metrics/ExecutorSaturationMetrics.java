@@ -0,0 +1,83 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.tritium.metrics;
+
+import com.codahale.metrics.Gauge;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.ToLongFunction;
+import javax.annotation.Nullable;
+
+/**
+ * {@link ExecutorSaturationMetrics} reports queue depth and pool utilization of well-known {@link ExecutorService}
+ * implementations, which cannot be derived from the tasks observed by executor instrumentation.
+ */
+final class ExecutorSaturationMetrics {
+
+    /**
+     * Registers the following gauges, tagged with
+     *
+     * <pre>{executor: NAME}</pre>
+     *
+     * for {@link ThreadPoolExecutor} and {@link ForkJoinPool} delegates. Other executors are ignored.
+     *
+     * <ul>
+     *   <li>executor.queue.size
+     *   <li>executor.queue.remaining-capacity (Only for {@link ThreadPoolExecutor})
+     *   <li>executor.pool.size
+     *   <li>executor.pool.active
+     *   <li>executor.pool.max
+     *   <li>executor.steal.count (Only for {@link ForkJoinPool})
+     * </ul>
+     *
+     * <p>Gauges only weakly reference the executor, so registering short-lived executors does not retain them, their
+     * threads, or their queued tasks. Gauges of collected executors report no value.
+     */
+    static void register(ExecutorMetrics metrics, String name, ExecutorService executor) {
+        if (executor instanceof ThreadPoolExecutor) {
+            WeakReference<ThreadPoolExecutor> pool = new WeakReference<>((ThreadPoolExecutor) executor);
+            metrics.queueSize().executor(name).build(gauge(pool, p -> p.getQueue().size()));
+            metrics.queueRemainingCapacity()
+                    .executor(name)
+                    .build(gauge(pool, p -> p.getQueue().remainingCapacity()));
+            metrics.poolSize().executor(name).build(gauge(pool, ThreadPoolExecutor::getPoolSize));
+            metrics.poolActive().executor(name).build(gauge(pool, ThreadPoolExecutor::getActiveCount));
+            metrics.poolMax().executor(name).build(gauge(pool, ThreadPoolExecutor::getMaximumPoolSize));
+        } else if (executor instanceof ForkJoinPool) {
+            WeakReference<ForkJoinPool> pool = new WeakReference<>((ForkJoinPool) executor);
+            metrics.queueSize()
+                    .executor(name)
+                    .build(gauge(pool, p -> p.getQueuedSubmissionCount() + p.getQueuedTaskCount()));
+            metrics.poolSize().executor(name).build(gauge(pool, ForkJoinPool::getPoolSize));
+            metrics.poolActive().executor(name).build(gauge(pool, ForkJoinPool::getActiveThreadCount));
+            metrics.poolMax().executor(name).build(gauge(pool, ForkJoinPool::getParallelism));
+            metrics.stealCount().executor(name).build(gauge(pool, ForkJoinPool::getStealCount));
+        }
+    }
+
+    /** Returns a gauge which does not retain the measured object, reporting null once it has been collected. */
+    static <T> Gauge<Long> gauge(WeakReference<T> reference, ToLongFunction<T> function) {
+        return () -> {
+            @Nullable T value = reference.get();
+            return value == null ? null : function.applyAsLong(value);
+        };
+    }
+
+    private ExecutorSaturationMetrics() {}
+}
@@ -0,0 +1,166 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.tritium.metrics;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalListener;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.Safe;
+import com.palantir.tritium.metrics.CacheMetrics.Load_Result;
+import com.palantir.tritium.metrics.CacheMetrics.Request_Result;
+import com.palantir.tritium.metrics.registry.LeanMeter;
+import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Records push-based metrics for Guava caches, reporting the same {@code cache.*} metrics as the Caffeine
+ * {@code CacheStats} in tritium-caffeine rather than polling {@link Cache#stats()}.
+ * <p>
+ * Loads are timed by wrapping the {@link CacheLoader}, evictions are recorded by a {@link RemovalListener} and
+ * requests are recorded by the returned cache, so the cache does not need to record its own stats. New code should
+ * prefer Caffeine caches, this is intended for existing Guava caches which cannot be migrated.
+ * <p>
+ * Example usage:
+ * <pre>
+ *     LoadingCache&lt;Integer, String&gt; cache = GuavaCacheStats.of(taggedMetricRegistry, "your-cache-name")
+ *             .register(CacheBuilder.newBuilder().maximumSize(1_000), loader);
+ * </pre>
+ */
+@SuppressWarnings("BanGuavaCaches") // this implementation is explicitly for Guava caches
+public final class GuavaCacheStats {
+
+    private final CacheMetrics metrics;
+    private final String name;
+    private final Meter hitMeter;
+    private final Meter missMeter;
+    private final Timer loadSuccessTimer;
+    private final Timer loadFailureTimer;
+    private final ImmutableMap<RemovalCause, Meter> evictionMeters;
+
+    private GuavaCacheStats(TaggedMetricRegistry registry, CacheMetrics metrics, @Safe String name) {
+        this.metrics = metrics;
+        this.name = name;
+        this.hitMeter = registry.meter(
+                metrics.request().cache(name).result(Request_Result.HIT).buildMetricName(), LeanMeter::new);
+        this.missMeter = registry.meter(
+                metrics.request().cache(name).result(Request_Result.MISS).buildMetricName(), LeanMeter::new);
+        this.loadSuccessTimer = metrics.load().cache(name).result(Load_Result.SUCCESS).build();
+        this.loadFailureTimer = metrics.load().cache(name).result(Load_Result.FAILURE).build();
+        // Matches the causes for which Caffeine records evictions, excluding explicit removals and replacements
+        this.evictionMeters = Stream.of(RemovalCause.COLLECTED, RemovalCause.EXPIRED, RemovalCause.SIZE)
+                .collect(Maps.toImmutableEnumMap(cause -> cause, cause -> metrics.eviction()
+                        .cache(name)
+                        .cause(cause.toString())
+                        .build()));
+    }
+
+    /**
+     * Creates a {@link GuavaCacheStats} instance that can be used to build Guava caches which record metrics.
+     *
+     * @param registry tagged metric registry to add cache metrics
+     * @param name cache name
+     * @return stats instance to register caches with
+     */
+    public static GuavaCacheStats of(TaggedMetricRegistry registry, @Safe String name) {
+        Preconditions.checkNotNull(registry, "metric registry");
+        Preconditions.checkNotNull(name, "name");
+        Preconditions.checkArgument(!name.trim().isEmpty(), "Cache name cannot be blank or empty");
+        return new GuavaCacheStats(registry, CacheMetrics.of(registry), name);
+    }
+
+    /**
+     * Builds an instrumented cache. The {@code builder} must not already have a removal listener, use
+     * {@link #removalListener(RemovalListener)} to also notify another listener.
+     *
+     * @param builder cache configuration
+     * @return instrumented cache
+     */
+    public <K, V> Cache<K, V> register(CacheBuilder<? super K, ? super V> builder) {
+        Cache<K, V> cache = builder.removalListener(removalListener(_notification -> {})).build();
+        registerEstimatedSize(cache::size);
+        return new InstrumentedGuavaCache<>(cache, this);
+    }
+
+    /**
+     * Builds an instrumented loading cache, timing loads performed by {@code loader}. The {@code builder} must not
+     * already have a removal listener, use {@link #removalListener(RemovalListener)} to also notify another listener.
+     *
+     * @param builder cache configuration
+     * @param loader cache loader
+     * @return instrumented loading cache
+     */
+    public <K, V> LoadingCache<K, V> register(
+            CacheBuilder<? super K, ? super V> builder, CacheLoader<? super K, V> loader) {
+        LoadingCache<K, V> cache = builder.removalListener(removalListener(_notification -> {}))
+                .build(new InstrumentedCacheLoader<>(loader, this));
+        registerEstimatedSize(cache::size);
+        return new InstrumentedGuavaLoadingCache<>(cache, this);
+    }
+
+    /**
+     * Returns a removal listener which records evictions before notifying {@code delegate}, for caches built without
+     * {@link #register}. Explicit removals and replacements are not evictions and are not recorded.
+     */
+    public <K, V> RemovalListener<K, V> removalListener(RemovalListener<K, V> delegate) {
+        return notification -> {
+            if (notification.wasEvicted()) {
+                Meter evictionMeter = evictionMeters.get(notification.getCause());
+                if (evictionMeter != null) {
+                    evictionMeter.mark();
+                }
+            }
+            delegate.onRemoval(notification);
+        };
+    }
+
+    void registerEstimatedSize(Gauge<Long> size) {
+        metrics.estimatedSize().cache(name).build(size);
+    }
+
+    void recordHits(int count) {
+        hitMeter.mark(count);
+    }
+
+    void recordMisses(int count) {
+        missMeter.mark(count);
+    }
+
+    void recordLoadSuccess(long loadTimeNanos) {
+        loadSuccessTimer.update(loadTimeNanos, TimeUnit.NANOSECONDS);
+    }
+
+    void recordLoadFailure(long loadTimeNanos) {
+        loadFailureTimer.update(loadTimeNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public String toString() {
+        return "GuavaCacheStats{name=" + name + ", hits=" + hitMeter.getCount() + ", misses=" + missMeter.getCount()
+                + ", loadSuccesses=" + loadSuccessTimer.getCount() + ", loadFailures="
+                + loadFailureTimer.getCount() + '}';
+    }
+}
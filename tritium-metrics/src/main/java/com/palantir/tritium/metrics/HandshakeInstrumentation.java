@@ -20,6 +20,9 @@ import com.palantir.logsafe.SafeArg;
 import com.palantir.logsafe.logger.SafeLogger;
 import com.palantir.logsafe.logger.SafeLoggerFactory;
 import com.palantir.tritium.event.InstrumentationProperties;
+import com.palantir.tritium.metrics.TlsMetrics.HandshakeSession_Type;
+import java.util.concurrent.TimeUnit;
+import javax.net.ssl.SSLSession;
 
 /**
  * Utility class to record handshake metrics. This class exists to allow a single logger to configure handshake logging
@@ -45,6 +48,26 @@ final class HandshakeInstrumentation {
         }
     }
 
+    /**
+     * Records a handshake observed by an {@link javax.net.ssl.SSLEngine}, which additionally reports the handshake
+     * duration and whether the session was resumed. A session is considered resumed when it was created before
+     * {@code startMillis}, the wall clock time recorded when the handshake began, as sessions created by a full
+     * handshake are created while it is in progress. Sessions resumed within the same millisecond in which they were
+     * created are reported as full handshakes.
+     */
+    static void record(
+            TlsMetrics metrics, String contextName, SSLSession session, long durationNanos, long startMillis) {
+        HandshakeSession_Type type =
+                session.getCreationTime() < startMillis ? HandshakeSession_Type.RESUMED : HandshakeSession_Type.FULL;
+        record(metrics, contextName, session.getCipherSuite(), session.getProtocol());
+        metrics.handshakeDuration(contextName).update(durationNanos, TimeUnit.NANOSECONDS);
+        metrics.handshakeSession()
+                .context(contextName)
+                .type(type)
+                .build()
+                .inc();
+    }
+
     /**
      * Socket metrics are more expensive than SSLEngine instrumentation due to HandshakeCompletedListener
      * instances running on a new short-lived thread. When no HandshakeCompletedListeners are registered,
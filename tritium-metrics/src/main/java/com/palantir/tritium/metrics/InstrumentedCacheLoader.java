@@ -0,0 +1,108 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.tritium.metrics;
+
+import com.google.common.cache.CacheLoader;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import java.util.Map;
+
+/** Times loads performed by a {@link CacheLoader}, recording them to {@link GuavaCacheStats}. */
+final class InstrumentedCacheLoader<K, V> extends CacheLoader<K, V> {
+
+    private final CacheLoader<? super K, V> delegate;
+    private final GuavaCacheStats stats;
+
+    InstrumentedCacheLoader(CacheLoader<? super K, V> delegate, GuavaCacheStats stats) {
+        this.delegate = delegate;
+        this.stats = stats;
+    }
+
+    @Override
+    public V load(K key) throws Exception {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            V value = delegate.load(key);
+            success = true;
+            return value;
+        } finally {
+            record(start, success);
+        }
+    }
+
+    @Override
+    public ListenableFuture<V> reload(K key, V oldValue) throws Exception {
+        long start = System.nanoTime();
+        ListenableFuture<V> future;
+        try {
+            future = delegate.reload(key, oldValue);
+        } catch (Exception | Error e) {
+            record(start, false);
+            throw e;
+        }
+        Futures.addCallback(
+                future,
+                new FutureCallback<V>() {
+                    @Override
+                    public void onSuccess(V _result) {
+                        record(start, true);
+                    }
+
+                    @Override
+                    public void onFailure(Throwable _throwable) {
+                        record(start, false);
+                    }
+                },
+                MoreExecutors.directExecutor());
+        return future;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked") // the delegate accepts any K, so only returns keys of type K
+    public Map<K, V> loadAll(Iterable<? extends K> keys) throws Exception {
+        long start = System.nanoTime();
+        Map<K, V> values;
+        try {
+            values = (Map<K, V>) delegate.loadAll(keys);
+        } catch (UnsupportedLoadingOperationException e) {
+            // Guava falls back to loading keys individually, which records each load
+            throw e;
+        } catch (Exception | Error e) {
+            record(start, false);
+            throw e;
+        }
+        record(start, true);
+        return values;
+    }
+
+    private void record(long start, boolean success) {
+        long elapsed = System.nanoTime() - start;
+        if (success) {
+            stats.recordLoadSuccess(elapsed);
+        } else {
+            stats.recordLoadFailure(elapsed);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "InstrumentedCacheLoader{" + delegate + '}';
+    }
+}
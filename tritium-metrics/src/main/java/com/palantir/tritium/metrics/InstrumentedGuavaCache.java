@@ -0,0 +1,111 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.tritium.metrics;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.ForwardingCache;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import javax.annotation.Nullable;
+
+/**
+ * Records cache requests to {@link GuavaCacheStats}. Guava caches do not expose whether a request was a hit, so each
+ * request is first attempted with {@link Cache#getIfPresent(Object)}, adding a lookup to requests which miss.
+ */
+@SuppressWarnings("BanGuavaCaches") // this implementation is explicitly for Guava caches
+class InstrumentedGuavaCache<K, V> extends ForwardingCache<K, V> {
+
+    private final Cache<K, V> delegate;
+    private final GuavaCacheStats stats;
+
+    InstrumentedGuavaCache(Cache<K, V> delegate, GuavaCacheStats stats) {
+        this.delegate = delegate;
+        this.stats = stats;
+    }
+
+    @Override
+    protected Cache<K, V> delegate() {
+        return delegate;
+    }
+
+    @Nullable
+    @Override
+    public V getIfPresent(Object key) {
+        return record(delegate.getIfPresent(key));
+    }
+
+    @Override
+    public V get(K key, Callable<? extends V> valueLoader) throws ExecutionException {
+        V value = record(delegate.getIfPresent(key));
+        if (value != null) {
+            return value;
+        }
+        return delegate.get(key, () -> {
+            long start = System.nanoTime();
+            boolean success = false;
+            try {
+                V loaded = valueLoader.call();
+                success = true;
+                return loaded;
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                if (success) {
+                    stats.recordLoadSuccess(elapsed);
+                } else {
+                    stats.recordLoadFailure(elapsed);
+                }
+            }
+        });
+    }
+
+    @Override
+    public ImmutableMap<K, V> getAllPresent(Iterable<? extends Object> keys) {
+        ImmutableSet<Object> keySet = ImmutableSet.copyOf(keys);
+        ImmutableMap<K, V> present = delegate.getAllPresent(keySet);
+        recordAll(keySet, present);
+        return present;
+    }
+
+    /** Records a request which was a hit if {@code value} is present, returning {@code value}. */
+    @Nullable
+    final V record(@Nullable V value) {
+        if (value == null) {
+            stats.recordMisses(1);
+        } else {
+            stats.recordHits(1);
+        }
+        return value;
+    }
+
+    /**
+     * Records requests for the distinct {@code keys}, of which {@code present} were hits, returning the number of
+     * misses. Callers copy keys into a set once, so that single use iterables are only iterated once.
+     */
+    final int recordAll(ImmutableSet<?> keys, ImmutableMap<K, V> present) {
+        int misses = keys.size() - present.size();
+        stats.recordHits(present.size());
+        stats.recordMisses(misses);
+        return misses;
+    }
+
+    @Override
+    public String toString() {
+        return "InstrumentedGuavaCache{" + stats + '}';
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.tritium.metrics;
+
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.util.concurrent.ExecutionException;
+
+/** Records loading cache requests to {@link GuavaCacheStats}, see {@link InstrumentedGuavaCache}. */
+@SuppressWarnings("BanGuavaCaches") // this implementation is explicitly for Guava caches
+final class InstrumentedGuavaLoadingCache<K, V> extends InstrumentedGuavaCache<K, V> implements LoadingCache<K, V> {
+
+    private final LoadingCache<K, V> delegate;
+
+    InstrumentedGuavaLoadingCache(LoadingCache<K, V> delegate, GuavaCacheStats stats) {
+        super(delegate, stats);
+        this.delegate = delegate;
+    }
+
+    @Override
+    public V get(K key) throws ExecutionException {
+        V value = record(delegate.getIfPresent(key));
+        return value != null ? value : delegate.get(key);
+    }
+
+    @Override
+    public V getUnchecked(K key) {
+        V value = record(delegate.getIfPresent(key));
+        return value != null ? value : delegate.getUnchecked(key);
+    }
+
+    @Override
+    public ImmutableMap<K, V> getAll(Iterable<? extends K> keys) throws ExecutionException {
+        ImmutableSet<K> keySet = ImmutableSet.copyOf(keys);
+        ImmutableMap<K, V> present = delegate.getAllPresent(keySet);
+        if (recordAll(keySet, present) == 0) {
+            return present;
+        }
+        return delegate.getAll(keySet);
+    }
+
+    @Override
+    @Deprecated
+    public V apply(K key) {
+        return getUnchecked(key);
+    }
+
+    @Override
+    public void refresh(K key) {
+        delegate.refresh(key);
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.tritium.metrics;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Memoizes a function in an unbounded {@link ConcurrentHashMap}, recording the same {@code cache.*} metrics as
+ * {@link GuavaCacheStats}. Hits only require a lock-free map read, misses compute the value at most once per key.
+ */
+final class InstrumentedMemoizer<K, V> implements Function<K, V> {
+
+    private final ConcurrentMap<K, V> values = new ConcurrentHashMap<>();
+    private final GuavaCacheStats stats;
+    private final Function<? super K, ? extends V> function;
+
+    InstrumentedMemoizer(GuavaCacheStats stats, Function<? super K, ? extends V> function) {
+        this.stats = stats;
+        this.function = function;
+        stats.registerEstimatedSize(() -> (long) values.size());
+    }
+
+    @Override
+    public V apply(K key) {
+        V value = values.get(key);
+        if (value != null) {
+            stats.recordHits(1);
+            return value;
+        }
+        stats.recordMisses(1);
+        return values.computeIfAbsent(key, this::load);
+    }
+
+    private V load(K key) {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            V value = function.apply(key);
+            success = true;
+            return value;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            if (success) {
+                stats.recordLoadSuccess(elapsed);
+            } else {
+                stats.recordLoadFailure(elapsed);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "InstrumentedMemoizer{stats=" + stats + ", function=" + function + '}';
+    }
+}
@@ -16,11 +16,17 @@
 
 package com.palantir.tritium.metrics;
 
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Timer;
 import com.palantir.logsafe.logger.SafeLogger;
 import com.palantir.logsafe.logger.SafeLoggerFactory;
+import com.palantir.tritium.metrics.TlsMetrics.BufferOverflow_Operation;
+import com.palantir.tritium.metrics.TlsMetrics.BytesEncrypted_Operation;
+import com.palantir.tritium.metrics.TlsMetrics.BytesPlaintext_Operation;
 import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.BiFunction;
 import javax.annotation.Nullable;
@@ -34,12 +40,24 @@ final class InstrumentedSslEngine extends SSLEngine {
 
     private static final SafeLogger log = SafeLoggerFactory.get(InstrumentedSslEngine.class);
 
+    private static final long NOT_STARTED = 0L;
+
     // n.b. This value is set using 'beginHandshake' for renegotiation. We instrument both because ciphers may change.
     private final AtomicBoolean handshaking = new AtomicBoolean(true);
+    // Start of the current handshake, or NOT_STARTED until the first wrap or unwrap of a handshake
+    private volatile long handshakeStartNanos = NOT_STARTED;
+    // Wall clock time at the start of the current handshake, compared with session creation times
+    private volatile long handshakeStartMillis;
     private final SSLEngine engine;
     private final TlsMetrics metrics;
     private final String name;
 
+    private final Counter wrapPlaintextBytes;
+    private final Counter wrapEncryptedBytes;
+    private final Counter unwrapPlaintextBytes;
+    private final Counter unwrapEncryptedBytes;
+    private final Timer delegatedTaskDuration;
+
     /**
      * Instrument the provided {@link SSLEngine}.
      * Note that this assumes up-to-date JVMs, older Java 8 releases did not provide
@@ -69,6 +87,23 @@ final class InstrumentedSslEngine extends SSLEngine {
         this.engine = engine;
         this.metrics = metrics;
         this.name = name;
+        this.wrapPlaintextBytes = metrics.bytesPlaintext()
+                .context(name)
+                .operation(BytesPlaintext_Operation.WRAP)
+                .build();
+        this.wrapEncryptedBytes = metrics.bytesEncrypted()
+                .context(name)
+                .operation(BytesEncrypted_Operation.WRAP)
+                .build();
+        this.unwrapPlaintextBytes = metrics.bytesPlaintext()
+                .context(name)
+                .operation(BytesPlaintext_Operation.UNWRAP)
+                .build();
+        this.unwrapEncryptedBytes = metrics.bytesEncrypted()
+                .context(name)
+                .operation(BytesEncrypted_Operation.UNWRAP)
+                .build();
+        this.delegatedTaskDuration = metrics.delegatedTaskDuration(name);
     }
 
     @Override
@@ -83,37 +118,45 @@ final class InstrumentedSslEngine extends SSLEngine {
 
     @Override
     public SSLEngineResult wrap(ByteBuffer src, ByteBuffer dst) throws SSLException {
-        return check(engine.wrap(src, dst));
+        startHandshake();
+        return checkWrap(engine.wrap(src, dst));
     }
 
     @Override
     public SSLEngineResult wrap(ByteBuffer[] sources, ByteBuffer byteBuffer) throws SSLException {
-        return check(engine.wrap(sources, byteBuffer));
+        startHandshake();
+        return checkWrap(engine.wrap(sources, byteBuffer));
     }
 
     @Override
     public SSLEngineResult wrap(ByteBuffer[] sources, int offset, int length, ByteBuffer dest) throws SSLException {
-        return check(engine.wrap(sources, offset, length, dest));
+        startHandshake();
+        return checkWrap(engine.wrap(sources, offset, length, dest));
     }
 
     @Override
     public SSLEngineResult unwrap(ByteBuffer src, ByteBuffer dst) throws SSLException {
-        return check(engine.unwrap(src, dst));
+        startHandshake();
+        return checkUnwrap(engine.unwrap(src, dst));
     }
 
     @Override
     public SSLEngineResult unwrap(ByteBuffer byteBuffer, ByteBuffer[] byteBuffers) throws SSLException {
-        return check(engine.unwrap(byteBuffer, byteBuffers));
+        startHandshake();
+        return checkUnwrap(engine.unwrap(byteBuffer, byteBuffers));
     }
 
     @Override
     public SSLEngineResult unwrap(ByteBuffer src, ByteBuffer[] dsts, int offset, int length) throws SSLException {
-        return check(engine.unwrap(src, dsts, offset, length));
+        startHandshake();
+        return checkUnwrap(engine.unwrap(src, dsts, offset, length));
     }
 
     @Override
+    @Nullable
     public Runnable getDelegatedTask() {
-        return engine.getDelegatedTask();
+        Runnable task = engine.getDelegatedTask();
+        return task == null ? null : new TimedDelegatedTask(task, delegatedTaskDuration);
     }
 
     @Override
@@ -179,6 +222,7 @@ final class InstrumentedSslEngine extends SSLEngine {
     @Override
     public void beginHandshake() throws SSLException {
         engine.beginHandshake();
+        markHandshakeStart();
         handshaking.set(true);
     }
 
@@ -280,13 +324,67 @@ final class InstrumentedSslEngine extends SSLEngine {
         return Objects.hash(engine, name);
     }
 
+    private void startHandshake() {
+        if (handshaking.get() && handshakeStartNanos == NOT_STARTED) {
+            markHandshakeStart();
+        }
+    }
+
+    private void markHandshakeStart() {
+        handshakeStartMillis = System.currentTimeMillis();
+        handshakeStartNanos = startNanos();
+    }
+
+    private static long startNanos() {
+        long nanos = System.nanoTime();
+        return nanos == NOT_STARTED ? 1L : nanos;
+    }
+
+    private SSLEngineResult checkWrap(SSLEngineResult result) {
+        inc(wrapPlaintextBytes, result.bytesConsumed());
+        inc(wrapEncryptedBytes, result.bytesProduced());
+        if (result.getStatus() == SSLEngineResult.Status.BUFFER_OVERFLOW) {
+            metrics.bufferOverflow()
+                    .context(name)
+                    .operation(BufferOverflow_Operation.WRAP)
+                    .build()
+                    .mark();
+        }
+        return check(result);
+    }
+
+    private SSLEngineResult checkUnwrap(SSLEngineResult result) {
+        inc(unwrapEncryptedBytes, result.bytesConsumed());
+        inc(unwrapPlaintextBytes, result.bytesProduced());
+        if (result.getStatus() == SSLEngineResult.Status.BUFFER_OVERFLOW) {
+            metrics.bufferOverflow()
+                    .context(name)
+                    .operation(BufferOverflow_Operation.UNWRAP)
+                    .build()
+                    .mark();
+        } else if (result.getStatus() == SSLEngineResult.Status.BUFFER_UNDERFLOW) {
+            metrics.bufferUnderflow(name).mark();
+        }
+        return check(result);
+    }
+
+    private static void inc(Counter counter, int bytes) {
+        if (bytes > 0) {
+            counter.inc(bytes);
+        }
+    }
+
     private SSLEngineResult check(SSLEngineResult result) {
         if (result.getHandshakeStatus() == SSLEngineResult.HandshakeStatus.FINISHED
                 && handshaking.compareAndSet(/* expectedValue= */ true, /* newValue= */ false)) {
+            long startNanos = handshakeStartNanos;
+            handshakeStartNanos = NOT_STARTED;
             try {
                 SSLSession session = engine.getSession();
-                if (session != null) {
-                    HandshakeInstrumentation.record(metrics, name, session.getCipherSuite(), session.getProtocol());
+                // Every wrap and unwrap marks the start of a handshake, so the start time is always known here
+                if (session != null && startNanos != NOT_STARTED) {
+                    HandshakeInstrumentation.record(
+                            metrics, name, session, System.nanoTime() - startNanos, handshakeStartMillis);
                 }
             } catch (RuntimeException e) {
                 log.warn("Failed to record handshake metrics", e);
@@ -294,4 +392,30 @@ final class InstrumentedSslEngine extends SSLEngine {
         }
         return result;
     }
+
+    private static final class TimedDelegatedTask implements Runnable {
+
+        private final Runnable task;
+        private final Timer timer;
+
+        TimedDelegatedTask(Runnable task, Timer timer) {
+            this.task = task;
+            this.timer = timer;
+        }
+
+        @Override
+        public void run() {
+            long startNanos = System.nanoTime();
+            try {
+                task.run();
+            } finally {
+                timer.update(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "TimedDelegatedTask{" + task + '}';
+        }
+    }
 }
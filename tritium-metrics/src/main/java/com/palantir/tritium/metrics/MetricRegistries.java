@@ -44,20 +44,27 @@ import com.palantir.logsafe.logger.SafeLogger;
 import com.palantir.logsafe.logger.SafeLoggerFactory;
 import com.palantir.tritium.metrics.registry.MetricName;
 import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
+import java.lang.ref.WeakReference;
+import java.time.Duration;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import javax.annotation.Nullable;
 import javax.net.ssl.SSLContext;
@@ -271,7 +278,8 @@ public final class MetricRegistries {
      * @param name cache name
      * @throws IllegalArgumentException if name is blank
      * @deprecated Do not use Guava caches, they are outperformed by and harder to use than Caffeine caches.
-     * Prefer {@link Caffeine#recordStats(Supplier)} and {@link CacheStats#of(TaggedMetricRegistry, String)}.
+     * Prefer {@link Caffeine#recordStats(Supplier)} and {@link CacheStats#of(TaggedMetricRegistry, String)}, or
+     * {@link GuavaCacheStats} for push-based metrics from Guava caches which cannot be migrated.
      */
     @Deprecated // BanGuavaCaches
     @SuppressWarnings("BanGuavaCaches") // this implementation is explicitly for Guava caches
@@ -284,6 +292,30 @@ public final class MetricRegistries {
         CacheTaggedMetrics.create(cache, name).getMetrics().forEach(registry::registerWithReplacement);
     }
 
+    /**
+     * Memoizes {@code function} in a {@link java.util.concurrent.ConcurrentHashMap}, recording the same
+     * {@code cache.*} metrics as caches instrumented with {@link GuavaCacheStats} or the tritium-caffeine
+     * {@code CacheStats}, for code which only requires an unbounded cache over a small set of keys.
+     *
+     * <p>Entries are never evicted. Each key is computed at most once, with concurrent requests for the same key
+     * blocking until it has been computed, so {@code function} must not recursively invoke the returned function.
+     * Null results are returned without being memoized.
+     *
+     * @param registry metric registry
+     * @param function function to memoize
+     * @param name cache name
+     * @return memoizing function
+     * @throws IllegalArgumentException if name is blank
+     */
+    public static <K, V> Function<K, V> memoize(
+            TaggedMetricRegistry registry, Function<? super K, ? extends V> function, @Safe String name) {
+        checkNotNull(registry, "metric registry");
+        checkNotNull(function, "function");
+        checkNotNull(name, "name");
+        checkArgument(!name.trim().isEmpty(), "Cache name cannot be blank or empty");
+        return new InstrumentedMemoizer<>(GuavaCacheStats.of(registry, name), function);
+    }
+
     /**
      * Adds Garbage Collection metrics to the given metric registry.
      *
@@ -335,7 +367,8 @@ public final class MetricRegistries {
      * Returns an instrumented {@link ScheduledExecutorService} that monitors the number of tasks submitted, running,
      * completed and also keeps a {@link com.codahale.metrics.Timer} for the task duration. Similar to
      * {@link com.codahale.metrics.InstrumentedScheduledExecutorService}, but produces tagged metrics to the specified
-     * {@link TaggedMetricRegistry}.
+     * {@link TaggedMetricRegistry}. Delayed and periodic tasks also report how late each execution started compared to
+     * its intended fire time, and periodic tasks report the jitter between consecutive executions.
      *
      * @param registry tagged metric registry
      * @param delegate executor service to instrument
@@ -352,7 +385,10 @@ public final class MetricRegistries {
      * Returns an instrumented {@link ExecutorService} that monitors the number of tasks submitted, running, completed
      * and also keeps a {@link com.codahale.metrics.Timer} for the task duration. Similar to
      * {@link com.codahale.metrics.InstrumentedExecutorService}, but produces tagged metrics to the specified
-     * {@link TaggedMetricRegistry}.
+     * {@link TaggedMetricRegistry}. Queue depth and pool size gauges are also registered for
+     * {@link java.util.concurrent.ThreadPoolExecutor} and {@link java.util.concurrent.ForkJoinPool} delegates, the
+     * latter including work-stealing and parallelism. Only tasks submitted through the returned executor are timed,
+     * subtasks forked from within a {@link java.util.concurrent.ForkJoinTask} run directly on the pool.
      *
      * @param registry tagged metric registry
      * @param delegate executor service to instrument
@@ -364,6 +400,36 @@ public final class MetricRegistries {
         return executor().registry(registry).name(name).executor(delegate).build();
     }
 
+    /**
+     * Returns an {@link Executor} for an asynchronous {@link CompletableFuture} stage, for example
+     * {@code future.thenApplyAsync(function, MetricRegistries.instrumentAsyncStage(registry, "parse", executor))}. The
+     * executor records the time the stage spent running as {@code async.stage.duration}, and the time between the
+     * stage being triggered, typically by completion of the previous stage, and beginning to run as
+     * {@code async.stage.queued-duration}. A stage name may be reused across many futures.
+     *
+     * @param registry tagged metric registry
+     * @param stage stage name
+     * @param delegate executor which runs the stage
+     * @return instrumented stage executor
+     */
+    public static Executor instrumentAsyncStage(TaggedMetricRegistry registry, @Safe String stage, Executor delegate) {
+        return new TaggedMetricsStageExecutor(
+                checkNotNull(delegate, "delegate"), AsyncStageMetrics.of(registry), checkNotNull(stage, "stage"));
+    }
+
+    /**
+     * Returns an {@link Executor} for an asynchronous {@link CompletableFuture} stage which runs on the default
+     * asynchronous executor, usually {@link java.util.concurrent.ForkJoinPool#commonPool()}.
+     *
+     * @param registry tagged metric registry
+     * @param stage stage name
+     * @return instrumented stage executor
+     * @see #instrumentAsyncStage(TaggedMetricRegistry, String, Executor)
+     */
+    public static Executor instrumentAsyncStage(TaggedMetricRegistry registry, @Safe String stage) {
+        return instrumentAsyncStage(registry, stage, CompletableFuture.completedFuture(null).defaultExecutor());
+    }
+
     /**
      * Returns an instrumented {@link ThreadFactory} that monitors the number of created, running, and terminated
      * threads.
@@ -409,6 +475,38 @@ public final class MetricRegistries {
                 checkNotNull(factory, "factory"), TlsMetrics.of(registry), checkNotNull(name, "name"));
     }
 
+    /**
+     * Runs the pending delegated tasks of an {@link SSLEngine} on the provided executor, for example an instrumented
+     * executor, rather than on the calling thread. Delegated tasks perform the expensive parts of a handshake, such as
+     * key exchange and certificate validation, so offloading them prevents event loop threads from blocking. The engine
+     * reports {@link javax.net.ssl.SSLEngineResult.HandshakeStatus#NEED_TASK} until the returned future completes,
+     * after which the caller should resume wrapping and unwrapping. Tasks of an instrumented engine are timed as
+     * {@code tls.delegated-task.duration}.
+     *
+     * @param engine engine with pending delegated tasks
+     * @param executor executor to run the tasks
+     * @return future which completes once every task has run
+     */
+    public static CompletableFuture<Void> runDelegatedTasks(SSLEngine engine, Executor executor) {
+        checkNotNull(engine, "engine");
+        checkNotNull(executor, "executor");
+        List<Runnable> tasks = new ArrayList<>();
+        Runnable task;
+        while ((task = engine.getDelegatedTask()) != null) {
+            tasks.add(task);
+        }
+        if (tasks.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.runAsync(
+                () -> {
+                    for (Runnable delegated : tasks) {
+                        delegated.run();
+                    }
+                },
+                executor);
+    }
+
     /**
      * Extracts the wrapped delegate if the input {@link SSLEngine} is instrumented, otherwise returns the input. Some
      * libraries (Conscrypt, for example) use <code>instanceof</code> checks and casts to configure specific
@@ -544,6 +642,22 @@ public final class MetricRegistries {
 
         private boolean reportQueuedDuration = true;
 
+        private boolean recordAllQueuedDurations = false;
+
+        private boolean optimizeForVirtualThreads = false;
+
+        @Nullable
+        private Duration concurrencyLatencyThreshold;
+
+        private int maxConcurrency;
+
+        private boolean reportResourceUsage = false;
+
+        private boolean reportRunningTaskAge = false;
+
+        @Nullable
+        private Duration stuckTaskThreshold;
+
         @Override
         @CheckReturnValue
         public ExecutorInstrumentationBuilderNameStage registry(TaggedMetricRegistry value) {
@@ -572,20 +686,91 @@ public final class MetricRegistries {
             return this;
         }
 
+        @Override
+        @CheckReturnValue
+        public ExecutorInstrumentationBuilderFinalStage recordAllQueuedDurations(boolean value) {
+            this.recordAllQueuedDurations = value;
+            return this;
+        }
+
+        @Override
+        @CheckReturnValue
+        public ExecutorInstrumentationBuilderFinalStage optimizeForVirtualThreads(boolean value) {
+            this.optimizeForVirtualThreads = value;
+            return this;
+        }
+
+        @Override
+        @CheckReturnValue
+        public ExecutorInstrumentationBuilderFinalStage adaptiveConcurrencyLimit(
+                Duration latencyThreshold, int maxConcurrency) {
+            this.concurrencyLatencyThreshold = Preconditions.checkNotNull(latencyThreshold, "latencyThreshold");
+            this.maxConcurrency = maxConcurrency;
+            return this;
+        }
+
+        @Override
+        @CheckReturnValue
+        public ExecutorInstrumentationBuilderFinalStage reportResourceUsage(boolean value) {
+            this.reportResourceUsage = value;
+            return this;
+        }
+
+        @Override
+        @CheckReturnValue
+        public ExecutorInstrumentationBuilderFinalStage reportRunningTaskAge(boolean value) {
+            this.reportRunningTaskAge = value;
+            return this;
+        }
+
+        @Override
+        @CheckReturnValue
+        public ExecutorInstrumentationBuilderFinalStage logStuckTasks(Duration threshold) {
+            Preconditions.checkArgument(!threshold.isNegative(), "Stuck task threshold must not be negative");
+            this.stuckTaskThreshold = threshold;
+            this.reportRunningTaskAge = true;
+            return this;
+        }
+
         @Override
         @CheckReturnValue
         public ExecutorService build() {
+            ExecutorMetrics metrics = ExecutorMetrics.of(checkNotNull(registry, "registry"));
+            ExecutorSaturationMetrics.register(
+                    metrics, checkNotNull(name, "name"), checkNotNull(executor, "delegate"));
             if (executor instanceof ScheduledExecutorService) {
                 return instrument(
                         checkNotNull(registry, "delegate"),
                         (ScheduledExecutorService) executor,
                         checkNotNull(name, "Name"));
             }
-            return new TaggedMetricsExecutorService(
-                    checkNotNull(executor, "delegate"),
-                    ExecutorMetrics.of(checkNotNull(registry, "registry")),
-                    checkNotNull(name, "name"),
-                    reportQueuedDuration);
+            ExecutorService delegate = checkNotNull(executor, "delegate");
+            String executorName = checkNotNull(name, "name");
+            if (concurrencyLatencyThreshold != null) {
+                ConcurrencyLimitedExecutorService limited = new ConcurrencyLimitedExecutorService(
+                        delegate, concurrencyLatencyThreshold, maxConcurrency, metrics.rejected(executorName));
+                metrics.concurrencyLimit()
+                        .executor(executorName)
+                        .build(ExecutorSaturationMetrics.gauge(
+                                new WeakReference<>(limited), ConcurrencyLimitedExecutorService::limit));
+                delegate = limited;
+            }
+            RunningTasks runningTasks = null;
+            if (reportRunningTaskAge) {
+                runningTasks = stuckTaskThreshold == null
+                        ? new RunningTasks(executorName)
+                        : new RunningTasks(executorName, stuckTaskThreshold);
+                metrics.runningOldestAge().executor(executorName).build(runningTasks::oldestAgeNanos);
+            }
+            return TaggedMetricsExecutorService.create(
+                    delegate,
+                    registry,
+                    executorName,
+                    reportQueuedDuration,
+                    recordAllQueuedDurations,
+                    optimizeForVirtualThreads,
+                    reportResourceUsage,
+                    runningTasks);
         }
     }
 
@@ -616,6 +801,68 @@ public final class MetricRegistries {
         @CheckReturnValue
         ExecutorInstrumentationBuilderFinalStage reportQueuedDuration(boolean value);
 
+        /**
+         * May be used to record the queued duration of every task, rather than only durations exceeding 250
+         * milliseconds. Queued durations are recorded into a log-linear HdrHistogram reservoir, which accepts every
+         * sample at a low fixed cost without sampling, so that short queueing delays are visible in the distribution.
+         * Has no effect when queued durations are not reported. Not applied to {@link ScheduledExecutorService}
+         * delegates. Disabled by default.
+         */
+        @CheckReturnValue
+        ExecutorInstrumentationBuilderFinalStage recordAllQueuedDurations(boolean value);
+
+        /**
+         * May be used to optimize instrumentation for executors which run many short tasks concurrently, for example
+         * {@code Executors.newVirtualThreadPerTaskExecutor()}. Task and queued durations are buffered in stripes and
+         * recorded in batches rather than contending on shared timers for every task, so recent samples only become
+         * visible once the timers are read. Not applied to {@link ScheduledExecutorService} delegates. Disabled by
+         * default.
+         */
+        @CheckReturnValue
+        ExecutorInstrumentationBuilderFinalStage optimizeForVirtualThreads(boolean value);
+
+        /**
+         * May be used to limit the number of tasks running concurrently on the delegate executor, protecting it from
+         * overload. The limit starts at {@code maxConcurrency} and adapts to task durations: it is reduced
+         * multiplicatively whenever a task runs longer than {@code latencyThreshold}, and increased by one when tasks
+         * complete within the threshold while the limit is well utilized. Tasks submitted while the limit is reached
+         * are queued, up to {@code maxConcurrency} tasks, and otherwise rejected with a
+         * {@link java.util.concurrent.RejectedExecutionException}, which is reflected in the {@code executor.rejected}
+         * meter. The current limit is reported as the {@code executor.concurrency.limit} gauge. Not applied to
+         * {@link ScheduledExecutorService} delegates.
+         */
+        @CheckReturnValue
+        ExecutorInstrumentationBuilderFinalStage adaptiveConcurrencyLimit(
+                Duration latencyThreshold, int maxConcurrency);
+
+        /**
+         * May be used to record the CPU time and the number of heap bytes allocated by each task, which distinguishes
+         * executors that burn cores or churn the garbage collector from those that mostly wait. Measurements are taken
+         * from the {@link java.lang.management.ThreadMXBean} of the thread running the task, so they are unavailable
+         * on JVMs or threads, such as virtual threads, which do not support per-thread measurement. Not applied to
+         * {@link ScheduledExecutorService} delegates. Disabled by default.
+         */
+        @CheckReturnValue
+        ExecutorInstrumentationBuilderFinalStage reportResourceUsage(boolean value);
+
+        /**
+         * May be used to report the age of the oldest running task as the {@code executor.running.oldest-age} gauge,
+         * so that hung tasks are visible before they exhaust the pool. The start times of running tasks are tracked
+         * in a small fixed-size slot array, so with more than 256 tasks running concurrently the age is a lower
+         * bound. Not applied to {@link ScheduledExecutorService} delegates. Disabled by default.
+         */
+        @CheckReturnValue
+        ExecutorInstrumentationBuilderFinalStage reportRunningTaskAge(boolean value);
+
+        /**
+         * May be used to log a warning, including the stack trace of the thread running it, for each task which has
+         * been running longer than {@code threshold}. Running tasks are checked whenever the
+         * {@code executor.running.oldest-age} gauge is read, typically by a metrics reporter, and each task is
+         * logged at most once. Enables {@link #reportRunningTaskAge(boolean)}.
+         */
+        @CheckReturnValue
+        ExecutorInstrumentationBuilderFinalStage logStuckTasks(Duration threshold);
+
         /**
          * Builds the instrumented {@link ExecutorService}.
          * @return instrumented executor service
@@ -0,0 +1,143 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.tritium.metrics;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.palantir.logsafe.SafeArg;
+import com.palantir.logsafe.UnsafeArg;
+import com.palantir.logsafe.exceptions.SafeRuntimeException;
+import com.palantir.logsafe.logger.SafeLogger;
+import com.palantir.logsafe.logger.SafeLoggerFactory;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Tracks the start times of tasks running on an executor in a fixed-size array of slots, so that the age of the
+ * oldest running task can be reported without locking or allocating per task.
+ *
+ * <p>A task claims a free slot when it starts and releases it when it completes. Tasks which start while every slot
+ * is in use are not tracked, so with more than {@link #CAPACITY} concurrently running tasks the reported age is a
+ * lower bound. Tasks running longer than the optional stuck task threshold are logged, along with the stack trace of
+ * their thread, when the age is read.
+ */
+final class RunningTasks {
+
+    private static final SafeLogger log = SafeLoggerFactory.get(RunningTasks.class);
+
+    @VisibleForTesting
+    static final int CAPACITY = 256;
+
+    static final int UNTRACKED = -1;
+
+    private static final int MASK = CAPACITY - 1;
+    private static final long EMPTY = 0L;
+
+    private final String name;
+    private final long stuckThresholdNanos;
+    private final AtomicLongArray starts = new AtomicLongArray(CAPACITY);
+    private final AtomicReferenceArray<Thread> threads = new AtomicReferenceArray<>(CAPACITY);
+
+    // Start times of the tasks which have already been logged, guarded by this
+    private final long[] logged = new long[CAPACITY];
+
+    RunningTasks(String name) {
+        this.name = name;
+        this.stuckThresholdNanos = Long.MAX_VALUE;
+    }
+
+    RunningTasks(String name, Duration stuckThreshold) {
+        this.name = name;
+        this.stuckThresholdNanos = stuckThreshold.toNanos();
+    }
+
+    /** Records a task starting on the current thread, returning its slot or {@link #UNTRACKED}. */
+    int start(long startNanos) {
+        // Zero marks an empty slot, shift the start time of a task which would collide with it
+        long value = startNanos == EMPTY ? 1L : startNanos;
+        int hint = hint();
+        for (int i = 0; i < CAPACITY; i++) {
+            int index = (hint + i) & MASK;
+            if (starts.get(index) == EMPTY && starts.compareAndSet(index, EMPTY, value)) {
+                threads.set(index, Thread.currentThread());
+                return index;
+            }
+        }
+        return UNTRACKED;
+    }
+
+    /** Records completion of the task which was assigned the given slot. */
+    void finish(int slot) {
+        if (slot != UNTRACKED) {
+            threads.set(slot, null);
+            starts.set(slot, EMPTY);
+        }
+    }
+
+    /** Returns the age in nanoseconds of the oldest running task, or zero if no tasks are running. */
+    long oldestAgeNanos() {
+        return oldestAgeNanos(System.nanoTime());
+    }
+
+    @VisibleForTesting
+    long oldestAgeNanos(long nowNanos) {
+        long oldest = 0L;
+        for (int i = 0; i < CAPACITY; i++) {
+            long start = starts.get(i);
+            if (start != EMPTY) {
+                long age = nowNanos - start;
+                oldest = Math.max(oldest, age);
+                if (age > stuckThresholdNanos) {
+                    logStuckTask(i, start, age);
+                }
+            }
+        }
+        return oldest;
+    }
+
+    private synchronized void logStuckTask(int index, long start, long age) {
+        if (logged[index] == start) {
+            return;
+        }
+        Thread thread = threads.get(index);
+        // The slot may have been reused by another task since it was read
+        if (thread == null || starts.get(index) != start) {
+            return;
+        }
+        logged[index] = start;
+        SafeRuntimeException trace = new SafeRuntimeException("Stack trace of the stuck task's thread");
+        trace.setStackTrace(thread.getStackTrace());
+        log.warn(
+                "Executor task has been running longer than the stuck task threshold",
+                SafeArg.of("executor", name),
+                SafeArg.of("age", Duration.ofNanos(age)),
+                SafeArg.of("threshold", Duration.ofNanos(stuckThresholdNanos)),
+                UnsafeArg.of("thread", thread.getName()),
+                trace);
+    }
+
+    @SuppressWarnings("deprecation") // Thread.threadId is not available on Java 17
+    private static int hint() {
+        long id = Thread.currentThread().getId();
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & MASK;
+    }
+
+    @Override
+    public String toString() {
+        return "RunningTasks{name=" + name + ", stuckThresholdNanos=" + stuckThresholdNanos + '}';
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.tritium.metrics;
+
+import com.codahale.metrics.Clock;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.LockFreeExponentiallyDecayingReservoir;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Reservoir;
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.Timer;
+import com.google.common.annotations.VisibleForTesting;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A {@link Timer} which buffers updates in per-thread stripes and records them into the underlying histogram and meter
+ * in batches, either when a stripe fills or when the timer is read.
+ *
+ * <p>A regular {@link Timer} updates a shared reservoir and marks a shared meter for every sample, which becomes a
+ * point of contention when many short-lived threads, such as virtual threads, complete tiny tasks concurrently.
+ * Buffered samples are not lost, but are only reflected in the timer's rates once flushed.
+ */
+final class StripedTimer extends Timer {
+
+    @VisibleForTesting
+    static final int BUFFER_SIZE = 64;
+
+    private static final int MAX_STRIPES = 64;
+
+    private final Histogram histogram;
+    private final Meter meter;
+    private final AtomicReferenceArray<Buffer> stripes;
+    private final int mask;
+
+    StripedTimer() {
+        this(LockFreeExponentiallyDecayingReservoir.builder().build());
+    }
+
+    StripedTimer(Reservoir reservoir) {
+        this(new Meter(), new Histogram(reservoir), Runtime.getRuntime().availableProcessors());
+    }
+
+    @VisibleForTesting
+    StripedTimer(Meter meter, Histogram histogram, int processors) {
+        super(meter, histogram, Clock.defaultClock());
+        this.histogram = histogram;
+        this.meter = meter;
+        int stripeCount = Math.min(MAX_STRIPES, Integer.highestOneBit(Math.max(1, processors - 1)) << 1);
+        this.stripes = new AtomicReferenceArray<>(stripeCount);
+        this.mask = stripeCount - 1;
+    }
+
+    @Override
+    public void update(long duration, TimeUnit unit) {
+        if (duration >= 0) {
+            record(unit.toNanos(duration));
+        }
+    }
+
+    @Override
+    public void update(Duration duration) {
+        update(duration.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public long getCount() {
+        flush();
+        return super.getCount();
+    }
+
+    @Override
+    public double getFifteenMinuteRate() {
+        flush();
+        return super.getFifteenMinuteRate();
+    }
+
+    @Override
+    public double getFiveMinuteRate() {
+        flush();
+        return super.getFiveMinuteRate();
+    }
+
+    @Override
+    public double getMeanRate() {
+        flush();
+        return super.getMeanRate();
+    }
+
+    @Override
+    public double getOneMinuteRate() {
+        flush();
+        return super.getOneMinuteRate();
+    }
+
+    @Override
+    public Snapshot getSnapshot() {
+        flush();
+        return super.getSnapshot();
+    }
+
+    private void record(long nanos) {
+        int index = stripeIndex();
+        Buffer buffer = stripes.get(index);
+        if (buffer == null) {
+            Buffer created = new Buffer();
+            Buffer existing = stripes.compareAndExchange(index, null, created);
+            buffer = existing == null ? created : existing;
+        }
+        int slot = buffer.claimed.getAndIncrement();
+        if (slot >= BUFFER_SIZE) {
+            // The buffer is full or sealed by a reader, record directly rather than waiting for a new buffer
+            histogram.update(nanos);
+            meter.mark();
+            return;
+        }
+        buffer.values[slot] = nanos;
+        buffer.written.incrementAndGet();
+        if (slot == BUFFER_SIZE - 1) {
+            stripes.compareAndSet(index, buffer, null);
+            drain(buffer, BUFFER_SIZE);
+        }
+    }
+
+    /** Records all buffered samples, making them visible to readers. */
+    @VisibleForTesting
+    void flush() {
+        for (int i = 0; i < stripes.length(); i++) {
+            Buffer buffer = stripes.getAndSet(i, null);
+            if (buffer != null) {
+                // Seal the buffer so that writers which still reference it record directly
+                int claimed = buffer.claimed.getAndAdd(BUFFER_SIZE);
+                if (claimed < BUFFER_SIZE) {
+                    drain(buffer, claimed);
+                }
+                // Otherwise the writer which claimed the final slot is responsible for draining
+            }
+        }
+    }
+
+    private void drain(Buffer buffer, int count) {
+        // Writers only perform an array store between claiming and publishing a slot
+        while (buffer.written.get() < count) {
+            Thread.onSpinWait();
+        }
+        for (int i = 0; i < count; i++) {
+            histogram.update(buffer.values[i]);
+        }
+        meter.mark(count);
+    }
+
+    @SuppressWarnings("deprecation") // Thread.threadId is not available on Java 17
+    private int stripeIndex() {
+        long id = Thread.currentThread().getId();
+        // Virtual thread identifiers are sequential, spread them across stripes
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+    }
+
+    @Override
+    public String toString() {
+        return "StripedTimer{stripes=" + stripes.length() + '}';
+    }
+
+    private static final class Buffer {
+        private final long[] values = new long[BUFFER_SIZE];
+        private final AtomicInteger claimed = new AtomicInteger();
+        private final AtomicInteger written = new AtomicInteger();
+    }
+}
@@ -19,11 +19,14 @@ package com.palantir.tritium.metrics;
 import com.codahale.metrics.Counter;
 import com.codahale.metrics.Meter;
 import com.codahale.metrics.Timer;
+import com.palantir.tritium.metrics.registry.MetricName;
+import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
 import java.util.List;
 import java.util.concurrent.AbstractExecutorService;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import javax.annotation.Nullable;
 
@@ -34,32 +37,116 @@ final class TaggedMetricsExecutorService extends AbstractExecutorService {
     // and beginning to execute, there is always a delta between these operations, but
     // it doesn't necessarily mean there's a queue at all. We assume anything longer than
     // this threshold, which should be longer than pauses in most cases, is the result
-    // of queueing.
+    // of queueing. The threshold is not applied when all queued durations are recorded.
     private static final long QUEUED_DURATION_MINIMUM_THRESHOLD_NANOS = 250_000_000L;
 
     private final ExecutorService delegate;
     private final String name;
 
     private final Meter submitted;
+    private final Meter rejected;
     private final Counter running;
     private final Timer duration;
 
     @Nullable
     private final Timer queuedDuration;
 
-    TaggedMetricsExecutorService(
-            ExecutorService delegate, ExecutorMetrics metrics, String name, boolean reportQueuedDuration) {
+    private final long queuedDurationThresholdNanos;
+
+    @Nullable
+    private final TaskResourceUsage resourceUsage;
+
+    @Nullable
+    private final RunningTasks runningTasks;
+
+    private TaggedMetricsExecutorService(
+            ExecutorService delegate,
+            String name,
+            Meter submitted,
+            Meter rejected,
+            Counter running,
+            Timer duration,
+            @Nullable Timer queuedDuration,
+            long queuedDurationThresholdNanos,
+            @Nullable TaskResourceUsage resourceUsage,
+            @Nullable RunningTasks runningTasks) {
         this.delegate = delegate;
         this.name = name;
-        this.submitted = metrics.submitted(name);
-        this.running = metrics.running(name);
-        this.duration = metrics.duration(name);
-        this.queuedDuration = reportQueuedDuration ? metrics.queuedDuration(name) : null;
+        this.submitted = submitted;
+        this.rejected = rejected;
+        this.running = running;
+        this.duration = duration;
+        this.queuedDuration = queuedDuration;
+        this.queuedDurationThresholdNanos = queuedDurationThresholdNanos;
+        this.resourceUsage = resourceUsage;
+        this.runningTasks = runningTasks;
+    }
+
+    /**
+     * Creates instrumentation for the {@code delegate} executor. Timers which are already registered under the same
+     * names are reused.
+     *
+     * @param recordAllQueuedDurations records the queued duration of every task into a log-linear
+     *     {@link Reservoirs#hdrHistogramReservoir() HdrHistogram reservoir}, rather than only durations exceeding the
+     *     minimum threshold
+     * @param optimizeForVirtualThreads records durations using {@link StripedTimer}s to avoid contending on shared
+     *     timers when many short tasks complete concurrently, such as on virtual-thread-per-task executors
+     * @param reportResourceUsage records the CPU time and allocated bytes of each task
+     * @param runningTasks tracks the start times of running tasks, if present
+     */
+    static TaggedMetricsExecutorService create(
+            ExecutorService delegate,
+            TaggedMetricRegistry registry,
+            String name,
+            boolean reportQueuedDuration,
+            boolean recordAllQueuedDurations,
+            boolean optimizeForVirtualThreads,
+            boolean reportResourceUsage,
+            @Nullable RunningTasks runningTasks) {
+        ExecutorMetrics metrics = ExecutorMetrics.of(registry);
+        Timer duration = optimizeForVirtualThreads
+                ? registry.timer(ExecutorMetrics.durationMetricName(name), StripedTimer::new)
+                : metrics.duration(name);
+        Timer queuedDuration = reportQueuedDuration
+                ? queuedDuration(registry, metrics, name, recordAllQueuedDurations, optimizeForVirtualThreads)
+                : null;
+        return new TaggedMetricsExecutorService(
+                delegate,
+                name,
+                metrics.submitted(name),
+                metrics.rejected(name),
+                metrics.running(name),
+                duration,
+                queuedDuration,
+                recordAllQueuedDurations ? -1L : QUEUED_DURATION_MINIMUM_THRESHOLD_NANOS,
+                reportResourceUsage ? new TaskResourceUsage(metrics, name) : null,
+                runningTasks);
+    }
+
+    private static Timer queuedDuration(
+            TaggedMetricRegistry registry,
+            ExecutorMetrics metrics,
+            String name,
+            boolean recordAllQueuedDurations,
+            boolean optimizeForVirtualThreads) {
+        MetricName metricName = ExecutorMetrics.queuedDurationMetricName(name);
+        if (recordAllQueuedDurations) {
+            return registry.timer(
+                    metricName,
+                    optimizeForVirtualThreads
+                            ? () -> new StripedTimer(Reservoirs.hdrHistogramReservoir())
+                            : () -> new Timer(Reservoirs.hdrHistogramReservoir()));
+        }
+        return optimizeForVirtualThreads ? registry.timer(metricName, StripedTimer::new) : metrics.queuedDuration(name);
     }
 
     @Override
     public void execute(Runnable task) {
-        delegate.execute(new TaggedMetricsRunnable(task));
+        try {
+            delegate.execute(new TaggedMetricsRunnable(task));
+        } catch (RejectedExecutionException e) {
+            throw rejected(e);
+        }
         // RejectedExecutionException should prevent 'submitted' from being incremented.
         // This means a wrapped same-thread executor will produce delayed 'submitted' values,
         // however the results will work as expected for the more common cases in which
@@ -69,25 +156,45 @@ final class TaggedMetricsExecutorService extends AbstractExecutorService {
 
     @Override
     public Future<?> submit(Runnable task) {
-        Future<?> future = delegate.submit(new TaggedMetricsRunnable(task));
+        Future<?> future;
+        try {
+            future = delegate.submit(new TaggedMetricsRunnable(task));
+        } catch (RejectedExecutionException e) {
+            throw rejected(e);
+        }
         submitted.mark();
         return future;
     }
 
     @Override
     public <T> Future<T> submit(Runnable task, T result) {
-        Future<T> future = delegate.submit(new TaggedMetricsRunnable(task), result);
+        Future<T> future;
+        try {
+            future = delegate.submit(new TaggedMetricsRunnable(task), result);
+        } catch (RejectedExecutionException e) {
+            throw rejected(e);
+        }
         submitted.mark();
         return future;
     }
 
     @Override
     public <T> Future<T> submit(Callable<T> task) {
-        Future<T> future = delegate.submit(new TaggedMetricsCallable<>(task));
+        Future<T> future;
+        try {
+            future = delegate.submit(new TaggedMetricsCallable<>(task));
+        } catch (RejectedExecutionException e) {
+            throw rejected(e);
+        }
         submitted.mark();
         return future;
     }
 
+    private RejectedExecutionException rejected(RejectedExecutionException exception) {
+        rejected.mark();
+        return exception;
+    }
+
     // n.b. We don't override invokeAny/invokeAll because the default AbstractExecutorService implementation will
     // produce more accurate metrics. When we call the delegate with N tasks, we don't know how many have been
     // submitted. It's difficult to tell if a task has been rejected as opposed to failing.
@@ -137,11 +244,22 @@ final class TaggedMetricsExecutorService extends AbstractExecutorService {
         public void run() {
             stopQueueTimer();
             running.inc();
+            TaskResourceUsage usage = resourceUsage;
+            long startCpuTimeNanos = usage == null ? TaskResourceUsage.UNAVAILABLE : usage.cpuTimeNanos();
+            long startAllocatedBytes = usage == null ? TaskResourceUsage.UNAVAILABLE : usage.allocatedBytes();
             long startNanos = System.nanoTime();
+            RunningTasks tasks = runningTasks;
+            int slot = tasks == null ? RunningTasks.UNTRACKED : tasks.start(startNanos);
             try {
                 task.run();
             } finally {
                 duration.update(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+                if (usage != null) {
+                    usage.record(startCpuTimeNanos, startAllocatedBytes);
+                }
+                if (tasks != null) {
+                    tasks.finish(slot);
+                }
                 running.dec();
             }
         }
@@ -151,7 +269,7 @@ final class TaggedMetricsExecutorService extends AbstractExecutorService {
             Timer queuedDurationTimer = queuedDuration;
             if (queuedDurationTimer != null) {
                 long queuedDurationNanos = System.nanoTime() - created;
-                if (queuedDurationNanos > QUEUED_DURATION_MINIMUM_THRESHOLD_NANOS) {
+                if (queuedDurationNanos > queuedDurationThresholdNanos) {
                     queuedDurationTimer.update(queuedDurationNanos, TimeUnit.NANOSECONDS);
                 }
             }
@@ -173,11 +291,22 @@ final class TaggedMetricsExecutorService extends AbstractExecutorService {
         public T call() throws Exception {
             stopQueueTimer();
             running.inc();
+            TaskResourceUsage usage = resourceUsage;
+            long startCpuTimeNanos = usage == null ? TaskResourceUsage.UNAVAILABLE : usage.cpuTimeNanos();
+            long startAllocatedBytes = usage == null ? TaskResourceUsage.UNAVAILABLE : usage.allocatedBytes();
             long startNanos = System.nanoTime();
+            RunningTasks tasks = runningTasks;
+            int slot = tasks == null ? RunningTasks.UNTRACKED : tasks.start(startNanos);
             try {
                 return task.call();
             } finally {
                 duration.update(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+                if (usage != null) {
+                    usage.record(startCpuTimeNanos, startAllocatedBytes);
+                }
+                if (tasks != null) {
+                    tasks.finish(slot);
+                }
                 running.dec();
             }
         }
@@ -187,7 +316,7 @@ final class TaggedMetricsExecutorService extends AbstractExecutorService {
             Timer queuedDurationTimer = queuedDuration;
             if (queuedDurationTimer != null) {
                 long queuedDurationNanos = System.nanoTime() - created;
-                if (queuedDurationNanos > QUEUED_DURATION_MINIMUM_THRESHOLD_NANOS) {
+                if (queuedDurationNanos > queuedDurationThresholdNanos) {
                     queuedDurationTimer.update(queuedDurationNanos, TimeUnit.NANOSECONDS);
                 }
             }
@@ -17,6 +17,7 @@
 package com.palantir.tritium.metrics;
 
 import com.codahale.metrics.Counter;
+import com.codahale.metrics.Histogram;
 import com.codahale.metrics.Timer;
 import java.util.List;
 import java.util.concurrent.AbstractExecutorService;
@@ -35,6 +36,8 @@ final class TaggedMetricsScheduledExecutorService extends AbstractExecutorServic
     private final Timer duration;
 
     private final Counter scheduledOverrun;
+    private final Histogram scheduledLateness;
+    private final Histogram scheduledJitter;
 
     TaggedMetricsScheduledExecutorService(ScheduledExecutorService delegate, ExecutorMetrics metrics, String name) {
         this.delegate = delegate;
@@ -44,27 +47,47 @@ final class TaggedMetricsScheduledExecutorService extends AbstractExecutorServic
         this.duration = metrics.duration(name);
 
         this.scheduledOverrun = metrics.scheduledOverrun(name);
+        this.scheduledLateness = metrics.scheduledLateness(name);
+        this.scheduledJitter = metrics.scheduledJitter(name);
     }
 
     @Override
     public ScheduledFuture<?> schedule(Runnable task, long delay, TimeUnit unit) {
-        return delegate.schedule(new TaggedMetricsRunnable(task), delay, unit);
+        return delegate.schedule(new TaggedMetricsRunnable(task, fireNanos(delay, unit)), delay, unit);
     }
 
     @Override
     public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
-        return delegate.schedule(new TaggedMetricsCallable<>(callable), delay, unit);
+        return delegate.schedule(new TaggedMetricsCallable<>(callable, fireNanos(delay, unit)), delay, unit);
     }
 
     @Override
     public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit unit) {
         return delegate.scheduleAtFixedRate(
-                new TaggedMetricsScheduledRunnable(task, period, unit), initialDelay, period, unit);
+                new TaggedMetricsScheduledRunnable(task, fireNanos(initialDelay, unit), unit.toNanos(period), true),
+                initialDelay,
+                period,
+                unit);
     }
 
     @Override
     public ScheduledFuture<?> scheduleWithFixedDelay(Runnable task, long initialDelay, long delay, TimeUnit unit) {
-        return delegate.scheduleWithFixedDelay(new TaggedMetricsRunnable(task), initialDelay, delay, unit);
+        return delegate.scheduleWithFixedDelay(
+                new TaggedMetricsScheduledRunnable(task, fireNanos(initialDelay, unit), unit.toNanos(delay), false),
+                initialDelay,
+                delay,
+                unit);
+    }
+
+    private static long fireNanos(long delay, TimeUnit unit) {
+        return System.nanoTime() + unit.toNanos(Math.max(0, delay));
+    }
+
+    /** Records how late a scheduled task started compared to the time it was intended to fire. */
+    private long recordLateness(long fireNanos, long startNanos) {
+        long latenessNanos = Math.max(0, startNanos - fireNanos);
+        scheduledLateness.update(latenessNanos);
+        return latenessNanos;
     }
 
     @Override
@@ -124,9 +147,19 @@ final class TaggedMetricsScheduledExecutorService extends AbstractExecutorServic
     private final class TaggedMetricsRunnable implements Runnable {
 
         private final Runnable task;
+        private final boolean delayed;
+        private final long fireNanos;
 
         TaggedMetricsRunnable(Runnable task) {
             this.task = task;
+            this.delayed = false;
+            this.fireNanos = 0L;
+        }
+
+        TaggedMetricsRunnable(Runnable task, long fireNanos) {
+            this.task = task;
+            this.delayed = true;
+            this.fireNanos = fireNanos;
         }
 
         @Override
@@ -134,6 +167,9 @@ final class TaggedMetricsScheduledExecutorService extends AbstractExecutorServic
         public void run() {
             running.inc();
             long startNanos = System.nanoTime();
+            if (delayed) {
+                recordLateness(fireNanos, startNanos);
+            }
             try {
                 task.run();
             } finally {
@@ -147,10 +183,18 @@ final class TaggedMetricsScheduledExecutorService extends AbstractExecutorServic
 
         private final Runnable task;
         private final long periodInNanos;
+        private final boolean fixedRate;
+
+        // Executions of a periodic task never overlap, and the executor establishes a happens-before relationship
+        // between consecutive executions, so these fields are only accessed by one thread at a time.
+        private long nextFireNanos;
+        private long previousLatenessNanos = -1L;
 
-        TaggedMetricsScheduledRunnable(Runnable task, long period, TimeUnit unit) {
+        TaggedMetricsScheduledRunnable(Runnable task, long fireNanos, long periodInNanos, boolean fixedRate) {
             this.task = task;
-            this.periodInNanos = unit.toNanos(period);
+            this.nextFireNanos = fireNanos;
+            this.periodInNanos = periodInNanos;
+            this.fixedRate = fixedRate;
         }
 
         @Override
@@ -158,14 +202,26 @@ final class TaggedMetricsScheduledExecutorService extends AbstractExecutorServic
         public void run() {
             running.inc();
             long startNanos = System.nanoTime();
+            long latenessNanos = recordLateness(nextFireNanos, startNanos);
+            if (previousLatenessNanos >= 0) {
+                scheduledJitter.update(Math.abs(latenessNanos - previousLatenessNanos));
+            }
+            previousLatenessNanos = latenessNanos;
             try {
                 task.run();
             } finally {
-                long elapsed = System.nanoTime() - startNanos;
+                long endNanos = System.nanoTime();
+                long elapsed = endNanos - startNanos;
                 duration.update(elapsed, TimeUnit.NANOSECONDS);
                 running.dec();
-                if (elapsed > periodInNanos) {
-                    scheduledOverrun.inc();
+                if (fixedRate) {
+                    // Fixed-rate executions are scheduled relative to the initial fire time, regardless of delays
+                    nextFireNanos += periodInNanos;
+                    if (elapsed > periodInNanos) {
+                        scheduledOverrun.inc();
+                    }
+                } else {
+                    nextFireNanos = endNanos + periodInNanos;
                 }
             }
         }
@@ -174,9 +230,19 @@ final class TaggedMetricsScheduledExecutorService extends AbstractExecutorServic
     private final class TaggedMetricsCallable<T> implements Callable<T> {
 
         private final Callable<T> task;
+        private final boolean delayed;
+        private final long fireNanos;
 
         TaggedMetricsCallable(Callable<T> task) {
             this.task = task;
+            this.delayed = false;
+            this.fireNanos = 0L;
+        }
+
+        TaggedMetricsCallable(Callable<T> task, long fireNanos) {
+            this.task = task;
+            this.delayed = true;
+            this.fireNanos = fireNanos;
         }
 
         @Override
@@ -184,6 +250,9 @@ final class TaggedMetricsScheduledExecutorService extends AbstractExecutorServic
         public T call() throws Exception {
             running.inc();
             long startNanos = System.nanoTime();
+            if (delayed) {
+                recordLateness(fireNanos, startNanos);
+            }
             try {
                 return task.call();
             } finally {
@@ -0,0 +1,77 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.tritium.metrics;
+
+import com.codahale.metrics.Timer;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An {@link Executor} for a single asynchronous {@link java.util.concurrent.CompletableFuture} stage. A
+ * {@link java.util.concurrent.CompletableFuture} hands an async stage to its executor once the stage is triggered,
+ * so the time between {@link #execute(Runnable)} and the task starting is the time the stage spent queued.
+ */
+final class TaggedMetricsStageExecutor implements Executor {
+
+    private final Executor delegate;
+    private final String stage;
+    private final Timer duration;
+    private final Timer queuedDuration;
+
+    TaggedMetricsStageExecutor(Executor delegate, AsyncStageMetrics metrics, String stage) {
+        this.delegate = delegate;
+        this.stage = stage;
+        this.duration = metrics.duration(stage);
+        this.queuedDuration = metrics.queuedDuration(stage);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        delegate.execute(new TaggedMetricsStageRunnable(command));
+    }
+
+    @Override
+    public String toString() {
+        return "TaggedMetricsStageExecutor{stage=" + stage + ", delegate=" + delegate + '}';
+    }
+
+    private final class TaggedMetricsStageRunnable implements Runnable {
+        private final Runnable task;
+        private final long triggeredNanos;
+
+        TaggedMetricsStageRunnable(Runnable task) {
+            this.task = task;
+            this.triggeredNanos = System.nanoTime();
+        }
+
+        @Override
+        public void run() {
+            long startNanos = System.nanoTime();
+            queuedDuration.update(startNanos - triggeredNanos, TimeUnit.NANOSECONDS);
+            try {
+                task.run();
+            } finally {
+                duration.update(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "TaggedMetricsStageRunnable{" + task + '}';
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.tritium.metrics;
+
+import com.codahale.metrics.Histogram;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import javax.annotation.Nullable;
+
+/**
+ * Measures the CPU time and heap allocation of tasks run by instrumented executors, using the current thread's
+ * counters before and after each task. Measurements which the JVM does not support, has disabled, or cannot provide
+ * for the current thread, for example a virtual thread, are not recorded.
+ */
+final class TaskResourceUsage {
+
+    static final long UNAVAILABLE = -1L;
+
+    @Nullable
+    private final ThreadMXBean cpuThreads;
+
+    @Nullable
+    private final com.sun.management.ThreadMXBean allocationThreads;
+
+    private final Histogram cpuTime;
+    private final Histogram allocatedBytes;
+
+    TaskResourceUsage(ExecutorMetrics metrics, String name) {
+        this(ManagementFactory.getThreadMXBean(), metrics.cpuTime(name), metrics.allocatedBytes(name));
+    }
+
+    TaskResourceUsage(ThreadMXBean threads, Histogram cpuTime, Histogram allocatedBytes) {
+        this.cpuThreads = threads.isCurrentThreadCpuTimeSupported() ? threads : null;
+        this.allocationThreads = threads instanceof com.sun.management.ThreadMXBean
+                        && ((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemorySupported()
+                ? (com.sun.management.ThreadMXBean) threads
+                : null;
+        this.cpuTime = cpuTime;
+        this.allocatedBytes = allocatedBytes;
+    }
+
+    /** Returns the CPU time of the current thread in nanoseconds, or {@link #UNAVAILABLE}. */
+    long cpuTimeNanos() {
+        return cpuThreads == null ? UNAVAILABLE : cpuThreads.getCurrentThreadCpuTime();
+    }
+
+    /** Returns the number of bytes allocated by the current thread, or {@link #UNAVAILABLE}. */
+    long allocatedBytes() {
+        return allocationThreads == null ? UNAVAILABLE : allocationThreads.getCurrentThreadAllocatedBytes();
+    }
+
+    /** Records usage of a task which ran on the current thread, given the values from before it started. */
+    void record(long startCpuTimeNanos, long startAllocatedBytes) {
+        if (startCpuTimeNanos >= 0) {
+            long endCpuTimeNanos = cpuTimeNanos();
+            if (endCpuTimeNanos >= 0) {
+                cpuTime.update(endCpuTimeNanos - startCpuTimeNanos);
+            }
+        }
+        if (startAllocatedBytes >= 0) {
+            long endAllocatedBytes = allocatedBytes();
+            if (endAllocatedBytes >= 0) {
+                allocatedBytes.update(endAllocatedBytes - startAllocatedBytes);
+            }
+        }
+    }
+}
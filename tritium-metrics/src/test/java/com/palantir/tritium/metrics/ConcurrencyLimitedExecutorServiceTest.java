@@ -0,0 +1,273 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.tritium.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.palantir.tritium.metrics.registry.MetricName;
+import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
+import com.palantir.tritium.metrics.test.TestTaggedMetricRegistries;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+final class ConcurrencyLimitedExecutorServiceTest {
+
+    private static final long THRESHOLD_NANOS = Duration.ofMillis(100).toNanos();
+
+    private final ExecutorService delegate = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void after() {
+        delegate.shutdownNow();
+    }
+
+    @Test
+    void testMultiplicativeDecrease() {
+        ConcurrencyLimitedExecutorService executor =
+                new ConcurrencyLimitedExecutorService(delegate, Duration.ofNanos(THRESHOLD_NANOS), 100, new Meter());
+        assertThat(executor.limit()).isEqualTo(100);
+
+        executor.update(THRESHOLD_NANOS + 1, 100, executor.backoffs());
+        assertThat(executor.limit()).isEqualTo(90);
+
+        for (int i = 0; i < 100; i++) {
+            executor.update(THRESHOLD_NANOS + 1, 100, executor.backoffs());
+        }
+        assertThat(executor.limit()).isOne();
+    }
+
+    @Test
+    void testBacksOffOncePerSpike() {
+        ConcurrencyLimitedExecutorService executor =
+                new ConcurrencyLimitedExecutorService(delegate, Duration.ofNanos(THRESHOLD_NANOS), 100, new Meter());
+        long backoffsAtStart = executor.backoffs();
+        for (int i = 0; i < 100; i++) {
+            executor.update(THRESHOLD_NANOS + 1, 100, backoffsAtStart);
+        }
+        assertThat(executor.limit()).isEqualTo(90);
+
+        // Tasks started after the reduction may reduce the limit again
+        executor.update(THRESHOLD_NANOS + 1, 90, executor.backoffs());
+        assertThat(executor.limit()).isEqualTo(81);
+    }
+
+    @Test
+    void testSlowTasksCompletingTogetherBackOffOnce() throws Exception {
+        ConcurrencyLimitedExecutorService executor =
+                new ConcurrencyLimitedExecutorService(delegate, Duration.ofMillis(1), 100, new Meter());
+        CountDownLatch started = new CountDownLatch(100);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            futures.add(executor.submit(() -> {
+                started.countDown();
+                awaitUninterruptibly(release);
+            }));
+        }
+        assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(10);
+        release.countDown();
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        assertThat(executor.limit()).isEqualTo(90);
+    }
+
+    @Test
+    void testAdditiveIncrease() {
+        ConcurrencyLimitedExecutorService executor =
+                new ConcurrencyLimitedExecutorService(delegate, Duration.ofNanos(THRESHOLD_NANOS), 100, new Meter());
+        executor.update(THRESHOLD_NANOS + 1, 100, executor.backoffs());
+        assertThat(executor.limit()).isEqualTo(90);
+
+        // Underutilized limits do not grow
+        executor.update(THRESHOLD_NANOS, 10, executor.backoffs());
+        assertThat(executor.limit()).isEqualTo(90);
+
+        executor.update(THRESHOLD_NANOS, 45, executor.backoffs());
+        assertThat(executor.limit()).isEqualTo(91);
+
+        for (int i = 0; i < 100; i++) {
+            executor.update(1, 100, executor.backoffs());
+        }
+        assertThat(executor.limit()).isEqualTo(100);
+    }
+
+    @Test
+    void testQueuesAndRejectsAboveLimit() throws Exception {
+        ConcurrencyLimitedExecutorService executor =
+                new ConcurrencyLimitedExecutorService(delegate, Duration.ofDays(1), 2, new Meter());
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(2);
+        AtomicInteger completed = new AtomicInteger();
+        Runnable blocking = () -> {
+            started.countDown();
+            awaitUninterruptibly(release);
+            completed.incrementAndGet();
+        };
+        List<Future<?>> futures = new ArrayList<>();
+        futures.add(executor.submit(blocking));
+        futures.add(executor.submit(blocking));
+        assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(executor.inFlight()).isEqualTo(2);
+
+        futures.add(executor.submit(completed::incrementAndGet));
+        futures.add(executor.submit(completed::incrementAndGet));
+        assertThat(executor.pending()).isEqualTo(2);
+        assertThatThrownBy(() -> executor.execute(completed::incrementAndGet))
+                .isInstanceOf(RejectedExecutionException.class);
+
+        release.countDown();
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        assertThat(completed).hasValue(4);
+        assertThat(executor.pending()).isZero();
+
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(executor.isTerminated()).isTrue();
+        assertThatThrownBy(() -> executor.execute(() -> {})).isInstanceOf(RejectedExecutionException.class);
+    }
+
+    @Test
+    void testShutdownNowReturnsQueuedTasks() throws Exception {
+        ConcurrencyLimitedExecutorService executor =
+                new ConcurrencyLimitedExecutorService(delegate, Duration.ofDays(1), 1, new Meter());
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> {
+            started.countDown();
+            awaitUninterruptibly(release);
+        });
+        assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+        Runnable queued = () -> {};
+        executor.execute(queued);
+
+        assertThat(executor.shutdownNow()).contains(queued);
+        assertThat(executor.pending()).isZero();
+    }
+
+    @Test
+    void testDelegateRejectionIsReportedToQueuedTask() throws Exception {
+        // Without a queue, the single thread cannot accept the queued task while it completes the running one
+        ThreadPoolExecutor singleThread = new ThreadPoolExecutor(1, 1, 1, TimeUnit.MINUTES, new SynchronousQueue<>());
+        Meter rejected = new Meter();
+        ConcurrencyLimitedExecutorService executor =
+                new ConcurrencyLimitedExecutorService(singleThread, Duration.ofDays(1), 1, rejected);
+        try {
+            CountDownLatch started = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            Future<?> running = executor.submit(() -> {
+                started.countDown();
+                awaitUninterruptibly(release);
+            });
+            assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+            Future<?> queued = executor.submit(() -> {});
+            assertThat(executor.pending()).isOne();
+
+            release.countDown();
+            running.get(10, TimeUnit.SECONDS);
+            assertThatThrownBy(() -> queued.get(10, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(RejectedExecutionException.class);
+            assertThat(rejected.getCount()).isOne();
+            assertThat(executor.pending()).isZero();
+            assertThat(executor.inFlight()).isZero();
+        } finally {
+            singleThread.shutdownNow();
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource(TestTaggedMetricRegistries.REGISTRIES)
+    void testLimitGauge(TaggedMetricRegistry registry) throws Exception {
+        ExecutorService executor = MetricRegistries.executor()
+                .registry(registry)
+                .name("name")
+                .executor(delegate)
+                .adaptiveConcurrencyLimit(Duration.ofDays(1), 8)
+                .build();
+        MetricName limit = ExecutorMetrics.of(registry)
+                .concurrencyLimit()
+                .executor("name")
+                .buildMetricName();
+        assertThat(registry.<Number>gauge(limit).orElseThrow().getValue()).isEqualTo(8L);
+
+        CountDownLatch release = new CountDownLatch(1);
+        for (int i = 0; i < 16; i++) {
+            executor.execute(() -> awaitUninterruptibly(release));
+        }
+        assertThatThrownBy(() -> executor.execute(() -> {})).isInstanceOf(RejectedExecutionException.class);
+        assertThat(ExecutorMetrics.of(registry).rejected("name").getCount()).isOne();
+        release.countDown();
+    }
+
+    @ParameterizedTest
+    @MethodSource(TestTaggedMetricRegistries.REGISTRIES)
+    void testLimitGaugeDoesNotRetainExecutor(TaggedMetricRegistry registry) throws Exception {
+        instrumentAndTerminate(registry);
+        MetricName limit = ExecutorMetrics.of(registry)
+                .concurrencyLimit()
+                .executor("name")
+                .buildMetricName();
+        Gauge<?> gauge = registry.gauge(limit).orElseThrow();
+        for (int i = 0; i < 100 && gauge.getValue() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertThat(gauge.getValue()).isNull();
+    }
+
+    private static void instrumentAndTerminate(TaggedMetricRegistry registry) throws InterruptedException {
+        ExecutorService executor = MetricRegistries.executor()
+                .registry(registry)
+                .name("name")
+                .executor(Executors.newSingleThreadExecutor())
+                .adaptiveConcurrencyLimit(Duration.ofDays(1), 8)
+                .build();
+        executor.execute(() -> {});
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
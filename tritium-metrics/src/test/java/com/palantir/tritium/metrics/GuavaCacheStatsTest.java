@@ -0,0 +1,203 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.tritium.metrics;
+
+import static com.palantir.logsafe.testing.Assertions.assertThatLoggableExceptionThrownBy;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.cache.RemovalCause;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.palantir.logsafe.exceptions.SafeIllegalArgumentException;
+import com.palantir.tritium.metrics.CacheMetrics.Load_Result;
+import com.palantir.tritium.metrics.CacheMetrics.Request_Result;
+import com.palantir.tritium.metrics.registry.DefaultTaggedMetricRegistry;
+import com.palantir.tritium.metrics.registry.LeanMeter;
+import com.palantir.tritium.metrics.registry.MetricName;
+import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+
+@SuppressWarnings("BanGuavaCaches") // this implementation is explicitly for Guava caches
+final class GuavaCacheStatsTest {
+
+    private final TaggedMetricRegistry registry = new DefaultTaggedMetricRegistry();
+    private final CacheMetrics metrics = CacheMetrics.of(registry);
+
+    @Test
+    void loadingCache() throws ExecutionException {
+        LoadingCache<Integer, String> cache = GuavaCacheStats.of(registry, "test")
+                .register(CacheBuilder.newBuilder().maximumSize(2), CacheLoader.from(String::valueOf));
+        assertThat(registry.getMetrics().keySet())
+                .extracting(MetricName::safeName)
+                .containsOnly("cache.request", "cache.load", "cache.eviction", "cache.estimated.size");
+        assertThat(registry.getMetrics())
+                .extractingByKey(metrics.request()
+                        .cache("test")
+                        .result(Request_Result.HIT)
+                        .buildMetricName())
+                .isInstanceOf(LeanMeter.class);
+
+        assertThat(cache.get(0)).isEqualTo("0");
+        assertThat(cache.getUnchecked(1)).isEqualTo("1");
+        assertThat(cache.get(1)).isEqualTo("1");
+        assertThat(cache.getIfPresent(3)).isNull();
+        assertThat(cache.getAll(ImmutableList.of(1, 2, 2))).containsExactly(entry(1), entry(2));
+        cache.cleanUp();
+
+        assertThat(requests(Request_Result.HIT)).isEqualTo(2);
+        assertThat(requests(Request_Result.MISS)).isEqualTo(4);
+        assertThat(loads(Load_Result.SUCCESS)).isEqualTo(3);
+        assertThat(loads(Load_Result.FAILURE)).isZero();
+        assertThat(evictions(RemovalCause.SIZE)).isOne();
+        assertThat(estimatedSize()).isEqualTo(2L);
+
+        cache.invalidate(1);
+        assertThat(isEvictionRegistered(RemovalCause.EXPLICIT)).isFalse();
+    }
+
+    @Test
+    void loadingCacheFailures() {
+        LoadingCache<Integer, String> cache = GuavaCacheStats.of(registry, "test")
+                .register(CacheBuilder.newBuilder(), CacheLoader.from(key -> {
+                    throw new IllegalStateException("failed");
+                }));
+        assertThatThrownBy(() -> cache.getUnchecked(0)).isInstanceOf(UncheckedExecutionException.class);
+        assertThat(requests(Request_Result.MISS)).isOne();
+        assertThat(loads(Load_Result.FAILURE)).isOne();
+        assertThat(loads(Load_Result.SUCCESS)).isZero();
+    }
+
+    @Test
+    void bulkLoads() throws ExecutionException {
+        LoadingCache<Integer, String> cache = GuavaCacheStats.of(registry, "test")
+                .register(CacheBuilder.newBuilder(), new CacheLoader<Integer, String>() {
+                    @Override
+                    public String load(Integer key) {
+                        return String.valueOf(key);
+                    }
+
+                    @Override
+                    public ImmutableMap<Integer, String> loadAll(Iterable<? extends Integer> keys) {
+                        ImmutableMap.Builder<Integer, String> values = ImmutableMap.builder();
+                        keys.forEach(key -> values.put(key, String.valueOf(key)));
+                        return values.buildOrThrow();
+                    }
+                });
+        assertThat(cache.getAll(ImmutableList.of(1, 2, 3))).hasSize(3);
+        assertThat(requests(Request_Result.MISS)).isEqualTo(3);
+        assertThat(loads(Load_Result.SUCCESS)).isOne();
+
+        assertThat(cache.getAll(ImmutableList.of(1, 2))).hasSize(2);
+        assertThat(requests(Request_Result.HIT)).isEqualTo(2);
+        assertThat(loads(Load_Result.SUCCESS)).isOne();
+    }
+
+    @Test
+    void singleUseIterables() throws ExecutionException {
+        LoadingCache<Integer, String> cache = GuavaCacheStats.of(registry, "test")
+                .register(CacheBuilder.newBuilder(), CacheLoader.from(String::valueOf));
+        assertThat(cache.getUnchecked(1)).isEqualTo("1");
+
+        assertThat(cache.getAll(singleUse(ImmutableList.of(1, 2, 2)))).containsExactly(entry(1), entry(2));
+        assertThat(cache.getAllPresent(singleUse(ImmutableList.of(1, 3)))).containsOnlyKeys(1);
+        assertThat(requests(Request_Result.HIT)).isEqualTo(2);
+        assertThat(requests(Request_Result.MISS)).isEqualTo(3);
+    }
+
+    @Test
+    void cache() throws ExecutionException {
+        List<RemovalCause> removals = new ArrayList<>();
+        GuavaCacheStats stats = GuavaCacheStats.of(registry, "test");
+        Cache<Integer, String> cache = CacheBuilder.newBuilder()
+                .removalListener(stats.<Integer, String>removalListener(
+                        notification -> removals.add(notification.getCause())))
+                .build();
+
+        assertThat(cache.getIfPresent(1)).isNull();
+        cache.put(1, "1");
+        cache.put(1, "one");
+        assertThat(removals).containsExactly(RemovalCause.REPLACED);
+        assertThat(isEvictionRegistered(RemovalCause.REPLACED)).isFalse();
+
+        Cache<Integer, String> registered = stats.register(CacheBuilder.newBuilder());
+        assertThat(registered.get(1, () -> "1")).isEqualTo("1");
+        assertThat(registered.get(1, () -> "2")).isEqualTo("1");
+        assertThat(registered.getAllPresent(ImmutableList.of(1, 2))).containsOnlyKeys(1);
+        assertThatThrownBy(() -> registered.get(2, () -> {
+                    throw new IllegalStateException("failed");
+                }))
+                .isInstanceOf(UncheckedExecutionException.class);
+
+        // Requests are only recorded by registered caches
+        assertThat(requests(Request_Result.HIT)).isEqualTo(2);
+        assertThat(requests(Request_Result.MISS)).isEqualTo(3);
+        assertThat(loads(Load_Result.SUCCESS)).isOne();
+        assertThat(loads(Load_Result.FAILURE)).isOne();
+    }
+
+    @Test
+    void blankName() {
+        assertThatLoggableExceptionThrownBy(() -> GuavaCacheStats.of(registry, " "))
+                .isInstanceOf(SafeIllegalArgumentException.class)
+                .hasLogMessage("Cache name cannot be blank or empty");
+    }
+
+    private static <T> Iterable<T> singleUse(List<T> values) {
+        AtomicBoolean iterated = new AtomicBoolean();
+        return () -> {
+            assertThat(iterated.getAndSet(true)).describedAs("iterated twice").isFalse();
+            return values.iterator();
+        };
+    }
+
+    private static ImmutableMap.Entry<Integer, String> entry(int key) {
+        return ImmutableMap.of(key, String.valueOf(key)).entrySet().iterator().next();
+    }
+
+    private long requests(Request_Result result) {
+        return metrics.request().cache("test").result(result).build().getCount();
+    }
+
+    private long loads(Load_Result result) {
+        return metrics.load().cache("test").result(result).build().getCount();
+    }
+
+    private boolean isEvictionRegistered(RemovalCause cause) {
+        return registry.getMetrics()
+                .containsKey(metrics.eviction().cache("test").cause(cause.toString()).buildMetricName());
+    }
+
+    private long evictions(RemovalCause cause) {
+        return metrics.eviction().cache("test").cause(cause.toString()).build().getCount();
+    }
+
+    private Object estimatedSize() {
+        return registry.gauge(metrics.estimatedSize().cache("test").buildMetricName())
+                .orElseThrow()
+                .getValue();
+    }
+}
@@ -19,6 +19,7 @@ package com.palantir.tritium.metrics;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assumptions.assumeThat;
 
+import com.codahale.metrics.Meter;
 import com.google.common.collect.MoreCollectors;
 import com.palantir.tritium.event.InstrumentationProperties;
 import com.palantir.tritium.metrics.registry.DefaultTaggedMetricRegistry;
@@ -31,15 +32,22 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.nio.ByteBuffer;
 import java.security.GeneralSecurityException;
 import java.security.KeyStore;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.net.ssl.HttpsURLConnection;
 import javax.net.ssl.KeyManagerFactory;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLException;
 import javax.net.ssl.SSLSocketFactory;
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.TrustManagerFactory;
@@ -197,8 +205,27 @@ final class InstrumentedSslContextTest {
                         .putSafeTags("cipher", ENABLED_CIPHER)
                         .putSafeTags("protocol", ENABLED_PROTOCOL)
                         .build());
-        assertThat(metrics.getMetrics()).containsOnlyKeys(name);
+        MetricName duration = findName(metrics, handshakeDuration("h2-server"));
+        MetricName session = findName(metrics, handshakeSession("h2-server", "full"));
+        MetricName wrapEncrypted = bytes(metrics, "encrypted", "h2-server", "wrap");
+        MetricName unwrapEncrypted = bytes(metrics, "encrypted", "h2-server", "unwrap");
+        // Buffer status and delegated tasks depend upon how the server drives the engine
+        assertThat(metrics.getMetrics().keySet())
+                .filteredOn(metricName -> !metricName.safeName().startsWith("tls.buffer.")
+                        && !metricName.safeName().startsWith("tls.delegated-task."))
+                .containsOnly(
+                        name,
+                        duration,
+                        session,
+                        bytes(metrics, "plaintext", "h2-server", "wrap"),
+                        bytes(metrics, "plaintext", "h2-server", "unwrap"),
+                        wrapEncrypted,
+                        unwrapEncrypted);
+        assertThat(metrics.counter(wrapEncrypted).getCount()).isPositive();
+        assertThat(metrics.counter(unwrapEncrypted).getCount()).isPositive();
         assertThat(metrics.meter(name).getCount()).isOne();
+        assertThat(metrics.timer(duration).getCount()).isOne();
+        assertThat(metrics.counter(session).getCount()).isOne();
     }
 
     @Test
@@ -218,8 +245,140 @@ final class InstrumentedSslContextTest {
                         .putSafeTags("cipher", ENABLED_CIPHER)
                         .putSafeTags("protocol", ENABLED_PROTOCOL)
                         .build());
-        assertThat(metrics.getMetrics()).containsOnlyKeys(name);
+        MetricName duration = findName(metrics, handshakeDuration("server-context"));
+        MetricName session = findName(metrics, handshakeSession("server-context", "full"));
+        MetricName wrapEncrypted = bytes(metrics, "encrypted", "server-context", "wrap");
+        MetricName unwrapEncrypted = bytes(metrics, "encrypted", "server-context", "unwrap");
+        // Buffer status and delegated tasks depend upon how the server drives the engine
+        assertThat(metrics.getMetrics().keySet())
+                .filteredOn(metricName -> !metricName.safeName().startsWith("tls.buffer.")
+                        && !metricName.safeName().startsWith("tls.delegated-task."))
+                .containsOnly(
+                        name,
+                        duration,
+                        session,
+                        bytes(metrics, "plaintext", "server-context", "wrap"),
+                        bytes(metrics, "plaintext", "server-context", "unwrap"),
+                        wrapEncrypted,
+                        unwrapEncrypted);
+        assertThat(metrics.counter(wrapEncrypted).getCount()).isPositive();
+        assertThat(metrics.counter(unwrapEncrypted).getCount()).isPositive();
         assertThat(metrics.meter(name).getCount()).isOne();
+        assertThat(metrics.timer(duration).getCount()).isOne();
+        assertThat(metrics.counter(session).getCount()).isOne();
+    }
+
+    @Test
+    void testSslEngineSessionResumption() throws Exception {
+        TaggedMetricRegistry metrics = new DefaultTaggedMetricRegistry();
+        SSLContext serverContext = MetricRegistries.instrument(metrics, newServerContext(), "engine");
+        SSLContext clientContext = newClientContext();
+
+        handshake(clientContext.createSSLEngine("localhost", PORT), serverContext.createSSLEngine());
+        MetricName full = findName(metrics, handshakeSession("engine", "full"));
+        assertThat(metrics.counter(full).getCount()).isOne();
+
+        // The client session cache allows a second connection to the same peer to resume the session. Session creation
+        // times have millisecond resolution, so ensure the resumed handshake starts in a later millisecond.
+        Thread.sleep(5);
+        handshake(clientContext.createSSLEngine("localhost", PORT), serverContext.createSSLEngine());
+        MetricName resumed = findName(metrics, handshakeSession("engine", "resumed"));
+        assertThat(metrics.counter(full).getCount()).isOne();
+        assertThat(metrics.counter(resumed).getCount()).isOne();
+
+        MetricName duration = findName(metrics, handshakeDuration("engine"));
+        assertThat(metrics.timer(duration).getCount()).isEqualTo(2);
+        assertThat(metrics.timer(duration).getSnapshot().getMax()).isPositive();
+    }
+
+    @Test
+    void testSslEngineBytesAndBufferStatus() throws Exception {
+        TaggedMetricRegistry metrics = new DefaultTaggedMetricRegistry();
+        SSLContext serverContext = MetricRegistries.instrument(metrics, newServerContext(), "engine");
+        SSLEngine client = newClientContext().createSSLEngine("localhost", PORT);
+        SSLEngine server = serverContext.createSSLEngine();
+        handshake(client, server);
+        long handshakeBytes = metrics.counter(bytes(metrics, "encrypted", "engine", "unwrap"))
+                .getCount();
+        assertThat(handshakeBytes).isPositive();
+        assertThat(metrics.counter(bytes(metrics, "plaintext", "engine", "unwrap")).getCount())
+                .isZero();
+
+        byte[] payload = new byte[100];
+        ByteBuffer record = ByteBuffer.allocate(client.getSession().getPacketBufferSize());
+        client.wrap(ByteBuffer.wrap(payload), record);
+        record.flip();
+        int recordLength = record.remaining();
+
+        // A partial record cannot be decrypted, the handshake itself may also have reported underflows
+        long underflows = bufferStatus(metrics, "underflow");
+        ByteBuffer partial = record.duplicate();
+        partial.limit(recordLength - 1);
+        assertThat(server.unwrap(partial, ByteBuffer.allocate(payload.length)).getStatus())
+                .isEqualTo(SSLEngineResult.Status.BUFFER_UNDERFLOW);
+        assertThat(bufferStatus(metrics, "underflow")).isEqualTo(underflows + 1);
+
+        // The destination must be large enough for the largest possible record
+        long overflows = bufferStatus(metrics, "overflow");
+        assertThat(server.unwrap(record, ByteBuffer.allocate(1)).getStatus())
+                .isEqualTo(SSLEngineResult.Status.BUFFER_OVERFLOW);
+        assertThat(server.wrap(ByteBuffer.wrap(payload), ByteBuffer.allocate(1)).getStatus())
+                .isEqualTo(SSLEngineResult.Status.BUFFER_OVERFLOW);
+        assertThat(bufferStatus(metrics, "overflow")).isEqualTo(overflows + 2);
+        assertThat(metrics.meter(bufferOverflow(metrics, "engine", "unwrap")).getCount())
+                .isPositive();
+        assertThat(metrics.meter(bufferOverflow(metrics, "engine", "wrap")).getCount())
+                .isPositive();
+
+        ByteBuffer application = ByteBuffer.allocate(server.getSession().getApplicationBufferSize());
+        assertThat(server.unwrap(record, application).getStatus()).isEqualTo(SSLEngineResult.Status.OK);
+        assertThat(metrics.counter(bytes(metrics, "plaintext", "engine", "unwrap")).getCount())
+                .isEqualTo(payload.length);
+        assertThat(metrics.counter(bytes(metrics, "encrypted", "engine", "unwrap")).getCount())
+                .isEqualTo(handshakeBytes + recordLength);
+
+        server.wrap(ByteBuffer.wrap(payload), ByteBuffer.allocate(server.getSession().getPacketBufferSize()));
+        assertThat(metrics.counter(bytes(metrics, "plaintext", "engine", "wrap")).getCount())
+                .isEqualTo(payload.length);
+    }
+
+    @Test
+    void testSslEngineDelegatedTasks() throws Exception {
+        TaggedMetricRegistry metrics = new DefaultTaggedMetricRegistry();
+        SSLContext serverContext = MetricRegistries.instrument(metrics, newServerContext(), "engine");
+        SSLEngine client = newClientContext().createSSLEngine("localhost", PORT);
+        SSLEngine server = serverContext.createSSLEngine();
+        client.setUseClientMode(true);
+        server.setUseClientMode(false);
+        client.setEnabledProtocols(new String[] {ENABLED_PROTOCOL});
+        server.setEnabledProtocols(new String[] {ENABLED_PROTOCOL});
+
+        // The server must process the client hello before it can respond
+        ByteBuffer clientHello = ByteBuffer.allocate(client.getSession().getPacketBufferSize());
+        client.wrap(ByteBuffer.allocate(0), clientHello);
+        clientHello.flip();
+        server.unwrap(clientHello, ByteBuffer.allocate(server.getSession().getApplicationBufferSize()));
+        assertThat(server.getHandshakeStatus()).isEqualTo(SSLEngineResult.HandshakeStatus.NEED_TASK);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        AtomicInteger submitted = new AtomicInteger();
+        try {
+            MetricRegistries.runDelegatedTasks(server, command -> {
+                        submitted.incrementAndGet();
+                        executor.execute(command);
+                    })
+                    .get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(submitted).hasValue(1);
+        assertThat(server.getHandshakeStatus()).isNotEqualTo(SSLEngineResult.HandshakeStatus.NEED_TASK);
+        assertThat(MetricRegistries.runDelegatedTasks(server, command -> submitted.incrementAndGet()))
+                .isCompleted();
+        assertThat(submitted).hasValue(1);
+
+        MetricName duration = findName(metrics, delegatedTaskDuration("engine"));
+        assertThat(metrics.timer(duration).getCount()).isPositive();
     }
 
     @Test
@@ -263,6 +422,96 @@ final class InstrumentedSslContextTest {
         assertThat(instrumentedFirst.hashCode()).isNotEqualTo(instrumentedThirdDifferentName.hashCode());
     }
 
+    private static void handshake(SSLEngine client, SSLEngine server) throws SSLException {
+        client.setUseClientMode(true);
+        server.setUseClientMode(false);
+        client.setEnabledProtocols(new String[] {ENABLED_PROTOCOL});
+        server.setEnabledProtocols(new String[] {ENABLED_PROTOCOL});
+        ByteBuffer empty = ByteBuffer.allocate(0);
+        ByteBuffer clientToServer = ByteBuffer.allocate(client.getSession().getPacketBufferSize());
+        ByteBuffer serverToClient = ByteBuffer.allocate(server.getSession().getPacketBufferSize());
+        ByteBuffer clientApplication = ByteBuffer.allocate(client.getSession().getApplicationBufferSize());
+        ByteBuffer serverApplication = ByteBuffer.allocate(server.getSession().getApplicationBufferSize());
+        client.beginHandshake();
+        server.beginHandshake();
+        for (int i = 0; i < 100 && (isHandshaking(client) || isHandshaking(server)); i++) {
+            client.wrap(empty, clientToServer);
+            runDelegatedTasks(client);
+            server.wrap(empty, serverToClient);
+            runDelegatedTasks(server);
+            clientToServer.flip();
+            server.unwrap(clientToServer, serverApplication);
+            clientToServer.compact();
+            runDelegatedTasks(server);
+            serverToClient.flip();
+            client.unwrap(serverToClient, clientApplication);
+            serverToClient.compact();
+            runDelegatedTasks(client);
+        }
+        assertThat(isHandshaking(client)).isFalse();
+        assertThat(isHandshaking(server)).isFalse();
+    }
+
+    private static boolean isHandshaking(SSLEngine engine) {
+        return engine.getHandshakeStatus() != SSLEngineResult.HandshakeStatus.NOT_HANDSHAKING;
+    }
+
+    private static void runDelegatedTasks(SSLEngine engine) {
+        Runnable task;
+        while ((task = engine.getDelegatedTask()) != null) {
+            task.run();
+        }
+    }
+
+    private static MetricName handshakeDuration(String context) {
+        return MetricName.builder()
+                .safeName("tls.handshake.duration")
+                .putSafeTags("context", context)
+                .build();
+    }
+
+    private static MetricName delegatedTaskDuration(String context) {
+        return MetricName.builder()
+                .safeName("tls.delegated-task.duration")
+                .putSafeTags("context", context)
+                .build();
+    }
+
+    private static MetricName handshakeSession(String context, String type) {
+        return MetricName.builder()
+                .safeName("tls.handshake.session")
+                .putSafeTags("context", context)
+                .putSafeTags("type", type)
+                .build();
+    }
+
+    private static MetricName bytes(TaggedMetricRegistry metrics, String type, String context, String operation) {
+        return findName(
+                metrics,
+                MetricName.builder()
+                        .safeName("tls.bytes." + type)
+                        .putSafeTags("context", context)
+                        .putSafeTags("operation", operation)
+                        .build());
+    }
+
+    private static MetricName bufferOverflow(TaggedMetricRegistry metrics, String context, String operation) {
+        return findName(
+                metrics,
+                MetricName.builder()
+                        .safeName("tls.buffer.overflow")
+                        .putSafeTags("context", context)
+                        .putSafeTags("operation", operation)
+                        .build());
+    }
+
+    private static long bufferStatus(TaggedMetricRegistry metrics, String status) {
+        return metrics.getMetrics().entrySet().stream()
+                .filter(entry -> entry.getKey().safeName().equals("tls.buffer." + status))
+                .mapToLong(entry -> ((Meter) entry.getValue()).getCount())
+                .sum();
+    }
+
     private static Closeable server(SSLContext context) {
         Undertow server = Undertow.builder()
                 .addHttpsListener(PORT, "0.0.0.0", context)
@@ -46,9 +46,12 @@ import java.time.Duration;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.SortedMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import javax.annotation.Nonnull;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
@@ -328,6 +331,53 @@ final class MetricRegistriesTest {
                 .isEqualTo(0.25);
     }
 
+    @Test
+    void memoize() {
+        List<Integer> computed = new ArrayList<>();
+        Function<Integer, String> memoized = MetricRegistries.memoize(
+                taggedMetricRegistry,
+                key -> {
+                    computed.add(key);
+                    return String.valueOf(key);
+                },
+                "test");
+        assertThat(memoized.apply(1)).isEqualTo("1");
+        assertThat(memoized.apply(1)).isEqualTo("1");
+        assertThat(memoized.apply(2)).isEqualTo("2");
+        assertThat(computed).containsExactly(1, 2);
+
+        CacheMetrics cacheMetrics = CacheMetrics.of(taggedMetricRegistry);
+        assertThat(cacheMetrics
+                        .request()
+                        .cache("test")
+                        .result(CacheMetrics.Request_Result.HIT)
+                        .build()
+                        .getCount())
+                .isOne();
+        assertThat(cacheMetrics
+                        .request()
+                        .cache("test")
+                        .result(CacheMetrics.Request_Result.MISS)
+                        .build()
+                        .getCount())
+                .isEqualTo(2);
+        assertThat(cacheMetrics
+                        .load()
+                        .cache("test")
+                        .result(CacheMetrics.Load_Result.SUCCESS)
+                        .build()
+                        .getCount())
+                .isEqualTo(2);
+        assertThat(taggedMetricRegistry
+                        .gauge(cacheMetrics.estimatedSize().cache("test").buildMetricName())
+                        .orElseThrow()
+                        .getValue())
+                .isEqualTo(2L);
+        assertThatThrownBy(() -> MetricRegistries.memoize(taggedMetricRegistry, Function.identity(), " "))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Cache name cannot be blank or empty");
+    }
+
     @Test
     void testGetOrAddDuplicate() {
         Counter mockMetric = mock(Counter.class);
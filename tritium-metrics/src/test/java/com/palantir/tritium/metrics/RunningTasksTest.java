@@ -0,0 +1,129 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.tritium.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.palantir.tritium.metrics.registry.MetricName;
+import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
+import com.palantir.tritium.metrics.test.TestTaggedMetricRegistries;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+final class RunningTasksTest {
+
+    @Test
+    void testOldestAge() {
+        RunningTasks tasks = new RunningTasks("name");
+        assertThat(tasks.oldestAgeNanos(1_000L)).isZero();
+
+        int first = tasks.start(100L);
+        int second = tasks.start(500L);
+        assertThat(first).isNotEqualTo(second);
+        assertThat(tasks.oldestAgeNanos(1_000L)).isEqualTo(900L);
+
+        tasks.finish(first);
+        assertThat(tasks.oldestAgeNanos(1_000L)).isEqualTo(500L);
+
+        tasks.finish(second);
+        assertThat(tasks.oldestAgeNanos(1_000L)).isZero();
+    }
+
+    @Test
+    void testStartTimeOfZero() {
+        RunningTasks tasks = new RunningTasks("name");
+        int slot = tasks.start(0L);
+        assertThat(slot).isNotEqualTo(RunningTasks.UNTRACKED);
+        assertThat(tasks.oldestAgeNanos(10L)).isEqualTo(9L);
+        tasks.finish(slot);
+    }
+
+    @Test
+    void testCapacity() {
+        RunningTasks tasks = new RunningTasks("name");
+        List<Integer> slots = new ArrayList<>();
+        for (int i = 0; i < RunningTasks.CAPACITY; i++) {
+            slots.add(tasks.start(1_000L + i));
+        }
+        assertThat(slots).doesNotContain(RunningTasks.UNTRACKED).doesNotHaveDuplicates();
+
+        int untracked = tasks.start(1L);
+        assertThat(untracked).isEqualTo(RunningTasks.UNTRACKED);
+        tasks.finish(untracked);
+        assertThat(tasks.oldestAgeNanos(2_000L)).isEqualTo(1_000L);
+
+        tasks.finish(slots.get(0));
+        assertThat(tasks.start(1L)).isEqualTo(slots.get(0));
+        assertThat(tasks.oldestAgeNanos(2_000L)).isEqualTo(1_999L);
+    }
+
+    @Test
+    void testStuckTasksAreReadable() {
+        RunningTasks tasks = new RunningTasks("name", Duration.ofNanos(100));
+        int slot = tasks.start(1L);
+        // Logging the stuck task must not interfere with reading its age, including repeated reads
+        assertThat(tasks.oldestAgeNanos(1_000L)).isEqualTo(999L);
+        assertThat(tasks.oldestAgeNanos(2_000L)).isEqualTo(1_999L);
+        tasks.finish(slot);
+        assertThat(tasks.oldestAgeNanos(3_000L)).isZero();
+    }
+
+    @ParameterizedTest
+    @MethodSource(TestTaggedMetricRegistries.REGISTRIES)
+    void testOldestAgeGauge(TaggedMetricRegistry registry) throws Exception {
+        ExecutorService executor = MetricRegistries.executor()
+                .registry(registry)
+                .name("name")
+                .executor(Executors.newFixedThreadPool(2))
+                .logStuckTasks(Duration.ofMillis(1))
+                .build();
+        MetricName oldestAge = ExecutorMetrics.of(registry)
+                .runningOldestAge()
+                .executor("name")
+                .buildMetricName();
+        assertThat(gauge(registry, oldestAge)).isZero();
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> future = executor.submit(() -> {
+            started.countDown();
+            Uninterruptibles.awaitUninterruptibly(release);
+        });
+        assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+        Uninterruptibles.sleepUninterruptibly(Duration.ofMillis(10));
+        assertThat(gauge(registry, oldestAge)).isGreaterThanOrEqualTo(Duration.ofMillis(10).toNanos());
+
+        release.countDown();
+        future.get();
+        assertThat(gauge(registry, oldestAge)).isZero();
+        executor.shutdown();
+    }
+
+    private static long gauge(TaggedMetricRegistry registry, MetricName name) {
+        return registry.<Number>gauge(name).orElseThrow().getValue().longValue();
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.tritium.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.UniformReservoir;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+final class StripedTimerTest {
+
+    private final Meter meter = new Meter();
+    private final Histogram histogram = new Histogram(new UniformReservoir(100_000));
+    private final StripedTimer timer = new StripedTimer(meter, histogram, 4);
+
+    @Test
+    void testUpdatesAreBufferedUntilRead() {
+        timer.update(1, TimeUnit.MILLISECONDS);
+        timer.update(Duration.ofMillis(2));
+        assertThat(histogram.getCount()).isZero();
+        assertThat(meter.getCount()).isZero();
+
+        assertThat(timer.getCount()).isEqualTo(2);
+        assertThat(histogram.getCount()).isEqualTo(2);
+        assertThat(meter.getCount()).isEqualTo(2);
+        assertThat(timer.getSnapshot().getValues())
+                .containsExactly(TimeUnit.MILLISECONDS.toNanos(1), TimeUnit.MILLISECONDS.toNanos(2));
+    }
+
+    @Test
+    void testFullBuffersAreRecorded() {
+        for (int i = 0; i < StripedTimer.BUFFER_SIZE; i++) {
+            timer.update(i, TimeUnit.NANOSECONDS);
+        }
+        assertThat(histogram.getCount()).isEqualTo(StripedTimer.BUFFER_SIZE);
+        assertThat(meter.getCount()).isEqualTo(StripedTimer.BUFFER_SIZE);
+
+        timer.update(1, TimeUnit.NANOSECONDS);
+        assertThat(histogram.getCount()).isEqualTo(StripedTimer.BUFFER_SIZE);
+        assertThat(timer.getCount()).isEqualTo(StripedTimer.BUFFER_SIZE + 1);
+    }
+
+    @Test
+    void testNegativeDurationsAreIgnored() {
+        timer.update(-1, TimeUnit.NANOSECONDS);
+        assertThat(timer.getCount()).isZero();
+    }
+
+    @Test
+    void testContext() {
+        timer.time().stop();
+        timer.time(() -> {});
+        assertThat(timer.getCount()).isEqualTo(2);
+        assertThat(timer.getMeanRate()).isPositive();
+    }
+
+    @Test
+    void testConcurrentUpdates() throws Exception {
+        int threads = 8;
+        int updatesPerThread = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int j = 0; j < updatesPerThread; j++) {
+                        timer.update(1, TimeUnit.NANOSECONDS);
+                        if (j % 1000 == 0) {
+                            // Concurrent reads seal buffers while writers are using them
+                            timer.getCount();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        long expected = (long) threads * updatesPerThread;
+        assertThat(timer.getCount()).isEqualTo(expected);
+        assertThat(meter.getCount()).isEqualTo(expected);
+        assertThat(timer.getSnapshot().getValues()).hasSize((int) expected).containsOnly(1L);
+    }
+}
@@ -19,17 +19,23 @@ package com.palantir.tritium.metrics;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import com.codahale.metrics.Gauge;
 import com.google.common.util.concurrent.Uninterruptibles;
+import com.palantir.tritium.metrics.registry.MetricName;
 import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
 import com.palantir.tritium.metrics.test.TestTaggedMetricRegistries;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.Future;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -154,6 +160,89 @@ final class TaggedMetricsExecutorServiceTest {
         assertThat(metrics.queuedDuration(NAME).getCount()).isZero();
     }
 
+    @ParameterizedTest
+    @MethodSource(TestTaggedMetricRegistries.REGISTRIES)
+    void testOptimizedForVirtualThreads(TaggedMetricRegistry registry) throws Exception {
+        ExecutorService executorService = MetricRegistries.executor()
+                .registry(registry)
+                .name(NAME)
+                .executor(Executors.newFixedThreadPool(4))
+                .optimizeForVirtualThreads(true)
+                .build();
+        ExecutorMetrics metrics = ExecutorMetrics.of(registry);
+        assertThat(metrics.duration(NAME)).isInstanceOf(StripedTimer.class);
+        assertThat(metrics.queuedDuration(NAME)).isInstanceOf(StripedTimer.class);
+
+        int tasks = 1000;
+        AtomicInteger calls = new AtomicInteger();
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < tasks; i++) {
+            futures.add(executorService.submit(calls::incrementAndGet));
+        }
+        for (Future<Integer> future : futures) {
+            future.get();
+        }
+        executorService.shutdown();
+
+        assertThat(calls).hasValue(tasks);
+        assertThat(metrics.submitted(NAME).getCount()).isEqualTo(tasks);
+        assertThat(metrics.running(NAME).getCount()).isZero();
+        assertThat(metrics.duration(NAME).getCount()).isEqualTo(tasks);
+        assertThat(metrics.duration(NAME).getSnapshot().size()).isPositive();
+    }
+
+    @ParameterizedTest
+    @MethodSource(TestTaggedMetricRegistries.REGISTRIES)
+    void testRecordAllQueuedDurations(TaggedMetricRegistry registry) throws Exception {
+        ExecutorService executorService = MetricRegistries.executor()
+                .registry(registry)
+                .name(NAME)
+                .executor(Executors.newSingleThreadExecutor())
+                .recordAllQueuedDurations(true)
+                .build();
+        ExecutorMetrics metrics = ExecutorMetrics.of(registry);
+
+        int tasks = 100;
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < tasks; i++) {
+            futures.add(executorService.submit(() -> {}));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executorService.shutdown();
+
+        assertThat(metrics.queuedDuration(NAME).getCount()).isEqualTo(tasks);
+        assertThat(metrics.queuedDuration(NAME).getSnapshot().size()).isEqualTo(tasks);
+        assertThat(metrics.queuedDuration(NAME).getSnapshot().getMin()).isGreaterThanOrEqualTo(0L);
+    }
+
+    @ParameterizedTest
+    @MethodSource(TestTaggedMetricRegistries.REGISTRIES)
+    void testRecordAllQueuedDurationsOptimizedForVirtualThreads(TaggedMetricRegistry registry) throws Exception {
+        ExecutorService executorService = MetricRegistries.executor()
+                .registry(registry)
+                .name(NAME)
+                .executor(Executors.newFixedThreadPool(4))
+                .recordAllQueuedDurations(true)
+                .optimizeForVirtualThreads(true)
+                .build();
+        ExecutorMetrics metrics = ExecutorMetrics.of(registry);
+        assertThat(metrics.queuedDuration(NAME)).isInstanceOf(StripedTimer.class);
+
+        int tasks = 1000;
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < tasks; i++) {
+            futures.add(executorService.submit(() -> {}));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executorService.shutdown();
+
+        assertThat(metrics.queuedDuration(NAME).getCount()).isEqualTo(tasks);
+    }
+
     @ParameterizedTest
     @MethodSource(TestTaggedMetricRegistries.REGISTRIES)
     void testRejection(TaggedMetricRegistry registry) {
@@ -167,6 +256,92 @@ final class TaggedMetricsExecutorServiceTest {
         assertThatThrownBy(() -> executorService.execute(calls::incrementAndGet))
                 .isInstanceOf(RejectedExecutionException.class);
         assertThat(metrics.submitted(NAME).getCount()).isZero();
+        assertThat(metrics.rejected(NAME).getCount()).isOne();
         assertThat(calls).hasValue(0);
+
+        assertThatThrownBy(() -> executorService.submit(calls::incrementAndGet))
+                .isInstanceOf(RejectedExecutionException.class);
+        assertThat(metrics.rejected(NAME).getCount()).isEqualTo(2);
+    }
+
+    @ParameterizedTest
+    @MethodSource(TestTaggedMetricRegistries.REGISTRIES)
+    void testThreadPoolExecutorGauges(TaggedMetricRegistry registry) throws Exception {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(1, 2, 1, TimeUnit.MINUTES, new ArrayBlockingQueue<>(10));
+        ExecutorService executorService = MetricRegistries.instrument(registry, pool, NAME);
+        ExecutorMetrics metrics = ExecutorMetrics.of(registry);
+        try {
+            CountDownLatch startLatch = new CountDownLatch(1);
+            CountDownLatch finishLatch = new CountDownLatch(1);
+            executorService.execute(() -> {
+                startLatch.countDown();
+                Uninterruptibles.awaitUninterruptibly(finishLatch);
+            });
+            startLatch.await();
+            for (int i = 0; i < 3; i++) {
+                executorService.execute(() -> {});
+            }
+
+            assertThat(gauge(registry, metrics.queueSize().executor(NAME).buildMetricName())).isEqualTo(3);
+            assertThat(gauge(registry, metrics.queueRemainingCapacity().executor(NAME).buildMetricName()))
+                    .isEqualTo(7);
+            assertThat(gauge(registry, metrics.poolSize().executor(NAME).buildMetricName())).isOne();
+            assertThat(gauge(registry, metrics.poolActive().executor(NAME).buildMetricName())).isOne();
+            assertThat(gauge(registry, metrics.poolMax().executor(NAME).buildMetricName())).isEqualTo(2);
+            assertThat(registry.getMetrics()).doesNotContainKey(metrics.stealCount()
+                    .executor(NAME)
+                    .buildMetricName());
+            finishLatch.countDown();
+        } finally {
+            executorService.shutdown();
+            assertThat(executorService.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        }
+        assertThat(gauge(registry, metrics.queueSize().executor(NAME).buildMetricName())).isZero();
+    }
+
+    @ParameterizedTest
+    @MethodSource(TestTaggedMetricRegistries.REGISTRIES)
+    void testForkJoinPoolGauges(TaggedMetricRegistry registry) throws Exception {
+        ForkJoinPool pool = new ForkJoinPool(3);
+        ExecutorService executorService = MetricRegistries.instrument(registry, pool, NAME);
+        ExecutorMetrics metrics = ExecutorMetrics.of(registry);
+        try {
+            executorService.submit(() -> {}).get();
+            assertThat(gauge(registry, metrics.poolMax().executor(NAME).buildMetricName())).isEqualTo(3);
+            assertThat(gauge(registry, metrics.poolSize().executor(NAME).buildMetricName()))
+                    .isGreaterThanOrEqualTo(1);
+            assertThat(gauge(registry, metrics.stealCount().executor(NAME).buildMetricName())).isNotNegative();
+            assertThat(gauge(registry, metrics.queueSize().executor(NAME).buildMetricName())).isZero();
+            assertThat(registry.getMetrics()).doesNotContainKey(metrics.queueRemainingCapacity()
+                    .executor(NAME)
+                    .buildMetricName());
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource(TestTaggedMetricRegistries.REGISTRIES)
+    void testGaugesDoNotRetainExecutor(TaggedMetricRegistry registry) throws Exception {
+        instrumentAndTerminate(registry);
+        MetricName queueSize = ExecutorMetrics.of(registry).queueSize().executor(NAME).buildMetricName();
+        Gauge<?> gauge = registry.gauge(queueSize).orElseThrow();
+        for (int i = 0; i < 100 && gauge.getValue() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertThat(gauge.getValue()).isNull();
+    }
+
+    private static void instrumentAndTerminate(TaggedMetricRegistry registry) throws InterruptedException {
+        ExecutorService executorService = MetricRegistries.instrument(
+                registry, new ThreadPoolExecutor(1, 1, 1, TimeUnit.MINUTES, new ArrayBlockingQueue<>(10)), NAME);
+        executorService.execute(() -> {});
+        executorService.shutdown();
+        assertThat(executorService.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private static long gauge(TaggedMetricRegistry registry, MetricName metricName) {
+        return registry.<Number>gauge(metricName).orElseThrow().getValue().longValue();
     }
 }
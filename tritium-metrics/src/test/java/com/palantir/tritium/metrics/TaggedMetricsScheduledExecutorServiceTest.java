@@ -18,6 +18,7 @@ package com.palantir.tritium.metrics;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import com.google.common.util.concurrent.Uninterruptibles;
 import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
 import com.palantir.tritium.metrics.test.TestTaggedMetricRegistries;
 import java.util.concurrent.CountDownLatch;
@@ -103,4 +104,55 @@ final class TaggedMetricsScheduledExecutorServiceTest {
 
         assertThat(metrics.scheduledOverrun(NAME).getCount()).isOne();
     }
+
+    @ParameterizedTest
+    @MethodSource(TestTaggedMetricRegistries.REGISTRIES)
+    void testDelayedLateness(TaggedMetricRegistry registry) throws Exception {
+        ScheduledExecutorService executorService =
+                MetricRegistries.instrument(registry, Executors.newSingleThreadScheduledExecutor(), NAME);
+        ExecutorMetrics metrics = ExecutorMetrics.of(registry);
+
+        CountDownLatch release = new CountDownLatch(1);
+        executorService.execute(() -> Uninterruptibles.awaitUninterruptibly(release));
+        Future<?> delayed = executorService.schedule(() -> {}, 1, TimeUnit.MILLISECONDS);
+        Future<String> delayedCallable = executorService.schedule(() -> "result", 1, TimeUnit.MILLISECONDS);
+        TimeUnit.MILLISECONDS.sleep(50);
+        release.countDown();
+        delayed.get();
+        assertThat(delayedCallable.get()).isEqualTo("result");
+        executorService.shutdown();
+
+        assertThat(metrics.scheduledLateness(NAME).getCount()).isEqualTo(2);
+        assertThat(metrics.scheduledLateness(NAME).getSnapshot().getMin())
+                .isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(40));
+        assertThat(metrics.scheduledJitter(NAME).getCount())
+                .as("One-shot tasks have no jitter")
+                .isZero();
+    }
+
+    @ParameterizedTest
+    @MethodSource(TestTaggedMetricRegistries.REGISTRIES)
+    void testPeriodicLatenessAndJitter(TaggedMetricRegistry registry) throws Exception {
+        ScheduledExecutorService executorService =
+                MetricRegistries.instrument(registry, Executors.newSingleThreadScheduledExecutor(), NAME);
+        ExecutorMetrics metrics = ExecutorMetrics.of(registry);
+
+        Semaphore fixedRate = new Semaphore(0);
+        Semaphore fixedDelay = new Semaphore(0);
+        Future<?> fixedRateFuture =
+                executorService.scheduleAtFixedRate(fixedRate::release, 0L, 1L, TimeUnit.MILLISECONDS);
+        Future<?> fixedDelayFuture =
+                executorService.scheduleWithFixedDelay(fixedDelay::release, 0L, 1L, TimeUnit.MILLISECONDS);
+        fixedRate.acquire(5);
+        fixedDelay.acquire(5);
+        fixedRateFuture.cancel(false);
+        fixedDelayFuture.cancel(false);
+        executorService.shutdown();
+        assertThat(executorService.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        long executions = 10 + fixedRate.availablePermits() + fixedDelay.availablePermits();
+        assertThat(metrics.scheduledLateness(NAME).getCount()).isEqualTo(executions);
+        assertThat(metrics.scheduledJitter(NAME).getCount()).isEqualTo(executions - 2);
+        assertThat(metrics.scheduledLateness(NAME).getSnapshot().getMax()).isLessThan(TimeUnit.SECONDS.toNanos(10));
+    }
 }
@@ -0,0 +1,90 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.tritium.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
+import com.palantir.tritium.metrics.test.TestTaggedMetricRegistries;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+final class TaggedMetricsStageExecutorTest {
+
+    @ParameterizedTest
+    @MethodSource(TestTaggedMetricRegistries.REGISTRIES)
+    void testStageMetrics(TaggedMetricRegistry registry) throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        int result = CompletableFuture.supplyAsync(
+                        () -> {
+                            Uninterruptibles.sleepUninterruptibly(Duration.ofMillis(10));
+                            return 1;
+                        },
+                        MetricRegistries.instrumentAsyncStage(registry, "first", executor))
+                .thenApplyAsync(value -> value + 1, MetricRegistries.instrumentAsyncStage(registry, "second", executor))
+                .get(10, TimeUnit.SECONDS);
+        assertThat(result).isEqualTo(2);
+        // Stage durations are recorded after the stage completes its future
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        AsyncStageMetrics metrics = AsyncStageMetrics.of(registry);
+        assertThat(metrics.duration("first").getCount()).isOne();
+        assertThat(metrics.duration("first").getSnapshot().getMax())
+                .isGreaterThanOrEqualTo(Duration.ofMillis(10).toNanos());
+        assertThat(metrics.queuedDuration("first").getCount()).isOne();
+        assertThat(metrics.duration("second").getCount()).isOne();
+        assertThat(metrics.queuedDuration("second").getCount()).isOne();
+    }
+
+    @ParameterizedTest
+    @MethodSource(TestTaggedMetricRegistries.REGISTRIES)
+    void testDefaultExecutor(TaggedMetricRegistry registry) throws Exception {
+        assertThat(CompletableFuture.supplyAsync(() -> 1, MetricRegistries.instrumentAsyncStage(registry, "stage"))
+                        .get(10, TimeUnit.SECONDS))
+                .isEqualTo(1);
+        assertThat(AsyncStageMetrics.of(registry).queuedDuration("stage").getCount()).isOne();
+    }
+
+    @ParameterizedTest
+    @MethodSource(TestTaggedMetricRegistries.REGISTRIES)
+    void testQueuedDuration(TaggedMetricRegistry registry) throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            CountDownLatch release = new CountDownLatch(1);
+            executor.execute(() -> Uninterruptibles.awaitUninterruptibly(release));
+            CompletableFuture<Void> future = CompletableFuture.runAsync(
+                    () -> {}, MetricRegistries.instrumentAsyncStage(registry, "stage", executor));
+            Uninterruptibles.sleepUninterruptibly(Duration.ofMillis(10));
+            release.countDown();
+            future.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        AsyncStageMetrics metrics = AsyncStageMetrics.of(registry);
+        assertThat(metrics.queuedDuration("stage").getSnapshot().getMax())
+                .isGreaterThanOrEqualTo(Duration.ofMillis(10).toNanos());
+    }
+}
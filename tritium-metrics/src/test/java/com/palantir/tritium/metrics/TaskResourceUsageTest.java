@@ -0,0 +1,110 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.tritium.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assumptions.assumeThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.UniformReservoir;
+import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
+import com.palantir.tritium.metrics.test.TestTaggedMetricRegistries;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+final class TaskResourceUsageTest {
+
+    private static final String NAME = "name";
+
+    @ParameterizedTest
+    @MethodSource(TestTaggedMetricRegistries.REGISTRIES)
+    void testResourceUsage(TaggedMetricRegistry registry) throws Exception {
+        assumeThat(ManagementFactory.getThreadMXBean().isCurrentThreadCpuTimeSupported()).isTrue();
+        ExecutorService executor = MetricRegistries.executor()
+                .registry(registry)
+                .name(NAME)
+                .executor(Executors.newSingleThreadExecutor())
+                .reportResourceUsage(true)
+                .build();
+        List<Future<?>> futures = new ArrayList<>();
+        futures.add(executor.submit(() -> new byte[1024 * 1024]));
+        futures.add(executor.submit(() -> {}));
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        ExecutorMetrics metrics = ExecutorMetrics.of(registry);
+        assertThat(metrics.cpuTime(NAME).getCount()).isEqualTo(2);
+        assertThat(metrics.cpuTime(NAME).getSnapshot().getMin()).isGreaterThanOrEqualTo(0L);
+        assertThat(metrics.allocatedBytes(NAME).getCount()).isEqualTo(2);
+        assertThat(metrics.allocatedBytes(NAME).getSnapshot().getMax()).isGreaterThanOrEqualTo(1024 * 1024);
+    }
+
+    @ParameterizedTest
+    @MethodSource(TestTaggedMetricRegistries.REGISTRIES)
+    void testDisabledByDefault(TaggedMetricRegistry registry) throws Exception {
+        ExecutorService executor = MetricRegistries.instrument(registry, Executors.newSingleThreadExecutor(), NAME);
+        executor.submit(() -> {}).get();
+        executor.shutdown();
+
+        assertThat(registry.getMetrics().keySet())
+                .noneMatch(name -> name.safeName().equals("executor.cpu-time")
+                        || name.safeName().equals("executor.allocated-bytes"));
+    }
+
+    @Test
+    void testUnsupported() {
+        ThreadMXBean threads = mock(ThreadMXBean.class);
+        when(threads.isCurrentThreadCpuTimeSupported()).thenReturn(false);
+        Histogram cpuTime = new Histogram(new UniformReservoir());
+        Histogram allocatedBytes = new Histogram(new UniformReservoir());
+        TaskResourceUsage usage = new TaskResourceUsage(threads, cpuTime, allocatedBytes);
+
+        assertThat(usage.cpuTimeNanos()).isEqualTo(TaskResourceUsage.UNAVAILABLE);
+        assertThat(usage.allocatedBytes()).isEqualTo(TaskResourceUsage.UNAVAILABLE);
+        usage.record(usage.cpuTimeNanos(), usage.allocatedBytes());
+        assertThat(cpuTime.getCount()).isZero();
+        assertThat(allocatedBytes.getCount()).isZero();
+    }
+
+    @Test
+    void testDisabledMeasurement() {
+        com.sun.management.ThreadMXBean threads = mock(com.sun.management.ThreadMXBean.class);
+        when(threads.isCurrentThreadCpuTimeSupported()).thenReturn(true);
+        when(threads.isThreadAllocatedMemorySupported()).thenReturn(true);
+        when(threads.getCurrentThreadCpuTime()).thenReturn(10L, -1L);
+        when(threads.getCurrentThreadAllocatedBytes()).thenReturn(100L, 356L);
+        Histogram cpuTime = new Histogram(new UniformReservoir());
+        Histogram allocatedBytes = new Histogram(new UniformReservoir());
+        TaskResourceUsage usage = new TaskResourceUsage(threads, cpuTime, allocatedBytes);
+
+        usage.record(usage.cpuTimeNanos(), usage.allocatedBytes());
+        assertThat(cpuTime.getCount()).isZero();
+        assertThat(allocatedBytes.getSnapshot().getValues()).containsExactly(256L);
+    }
+}
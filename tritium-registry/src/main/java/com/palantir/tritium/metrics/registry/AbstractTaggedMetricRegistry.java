@@ -218,6 +218,19 @@ public abstract class AbstractTaggedMetricRegistry implements TaggedMetricRegist
         return checkNotNull(checkMetricType(metricName, metricClass, metric), "metric");
     }
 
+    /**
+     * Looks up a metric by a reusable {@link MetricLookup} key, only materializing an immutable {@link MetricName}
+     * when the metric must be created.
+     */
+    @SuppressWarnings("CollectionIncompatibleType") // Key equals and hashes consistently with RealMetricName
+    final <T extends Metric> T getOrAdd(MetricLookup.Key key, Class<T> metricClass, Supplier<T> metricSupplier) {
+        Metric existing = registry.get(key);
+        if (metricClass.isInstance(existing)) {
+            return metricClass.cast(existing);
+        }
+        return getOrAdd(key.toMetricName(), metricClass, metricSupplier);
+    }
+
     @Nullable
     static <T extends Metric> T checkMetricType(MetricName metricName, Class<T> metricClass, @Nullable Metric metric) {
         if (metric == null || metricClass.isInstance(metric)) {
@@ -0,0 +1,187 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.tritium.metrics.registry;
+
+import com.codahale.metrics.Clock;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MovingAverages;
+import com.google.errorprone.annotations.concurrent.GuardedBy;
+import com.palantir.logsafe.Preconditions;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A count-oriented {@link Meter} which does no rate bookkeeping when marked.
+ *
+ * <p>The default {@link Meter} ticks three exponentially weighted moving averages on every {@link #mark(long)} and
+ * every read. Many meters are only ever exported as counts, so {@link LeanMeter} reduces {@link #mark(long)} to a
+ * single {@link LongAdder} update and computes the 1, 5, and 15 minute rates lazily from the count observed at read
+ * time. This is equivalent to the default meter when rates are read at least once per five second tick interval. When
+ * reads are less frequent, marks since the previous read are spread uniformly across the elapsed tick intervals rather
+ * than being attributed to the first of them.
+ *
+ * <p>Registries opt in by overriding {@link AbstractTaggedMetricRegistry#meterSupplier()}:
+ *
+ * <pre>{@code
+ * @Override
+ * protected Supplier<Meter> meterSupplier() {
+ *     return LeanMeter::new;
+ * }
+ * }</pre>
+ */
+public final class LeanMeter extends Meter {
+
+    private static final long TICK_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(5);
+    private static final double TICK_INTERVAL_SECONDS = 5D;
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final LongAdder count = new LongAdder();
+    private final Clock clock;
+    private final long startTick;
+
+    @GuardedBy("this")
+    private long lastTick;
+
+    @GuardedBy("this")
+    private long lastCount;
+
+    @GuardedBy("this")
+    private boolean initialized;
+
+    // Rates are stored in events per nanosecond, matching com.codahale.metrics.EWMA
+    @GuardedBy("this")
+    private double m1Rate;
+
+    @GuardedBy("this")
+    private double m5Rate;
+
+    @GuardedBy("this")
+    private double m15Rate;
+
+    public LeanMeter() {
+        this(Clock.defaultClock());
+    }
+
+    public LeanMeter(Clock clock) {
+        super(NoOpMovingAverages.INSTANCE, Preconditions.checkNotNull(clock, "clock"));
+        this.clock = clock;
+        this.startTick = clock.getTick();
+        this.lastTick = startTick;
+    }
+
+    @Override
+    public void mark() {
+        count.increment();
+    }
+
+    @Override
+    public void mark(long events) {
+        count.add(events);
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    @Override
+    public double getMeanRate() {
+        long currentCount = getCount();
+        if (currentCount == 0) {
+            return 0D;
+        }
+        double elapsed = clock.getTick() - startTick;
+        return currentCount / elapsed * NANOS_PER_SECOND;
+    }
+
+    @Override
+    public synchronized double getOneMinuteRate() {
+        tickIfNecessary();
+        return m1Rate * NANOS_PER_SECOND;
+    }
+
+    @Override
+    public synchronized double getFiveMinuteRate() {
+        tickIfNecessary();
+        return m5Rate * NANOS_PER_SECOND;
+    }
+
+    @Override
+    public synchronized double getFifteenMinuteRate() {
+        tickIfNecessary();
+        return m15Rate * NANOS_PER_SECOND;
+    }
+
+    @GuardedBy("this")
+    private void tickIfNecessary() {
+        long now = clock.getTick();
+        long age = now - lastTick;
+        if (age <= TICK_INTERVAL_NANOS) {
+            return;
+        }
+        long ticks = age / TICK_INTERVAL_NANOS;
+        long currentCount = getCount();
+        double instantRate = (currentCount - lastCount) / (double) (ticks * TICK_INTERVAL_NANOS);
+        lastTick = now - age % TICK_INTERVAL_NANOS;
+        lastCount = currentCount;
+        if (initialized) {
+            m1Rate = decay(m1Rate, instantRate, ticks, 1);
+            m5Rate = decay(m5Rate, instantRate, ticks, 5);
+            m15Rate = decay(m15Rate, instantRate, ticks, 15);
+        } else {
+            m1Rate = instantRate;
+            m5Rate = instantRate;
+            m15Rate = instantRate;
+            initialized = true;
+        }
+    }
+
+    /**
+     * Applies {@code ticks} consecutive EWMA updates with the same instantaneous rate in closed form:
+     * {@code rate + (1 - (1 - alpha)^ticks) * (instantRate - rate)} where {@code 1 - alpha = e^(-interval / window)}.
+     */
+    private static double decay(double rate, double instantRate, long ticks, int minutes) {
+        double retained = Math.exp(-ticks * TICK_INTERVAL_SECONDS / TimeUnit.MINUTES.toSeconds(minutes));
+        return instantRate + (rate - instantRate) * retained;
+    }
+
+    /** Avoids allocating the unused {@link com.codahale.metrics.EWMA} instances of the parent {@link Meter}. */
+    private enum NoOpMovingAverages implements MovingAverages {
+        INSTANCE;
+
+        @Override
+        public void tickIfNecessary() {}
+
+        @Override
+        public void update(long _events) {}
+
+        @Override
+        public double getM1Rate() {
+            return 0D;
+        }
+
+        @Override
+        public double getM5Rate() {
+            return 0D;
+        }
+
+        @Override
+        public double getM15Rate() {
+            return 0D;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.tritium.metrics.registry;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.Timer;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.Safe;
+import java.util.Arrays;
+import java.util.SortedMap;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+
+/**
+ * Allocation-free metric lookup for call sites with dynamic tags which cannot cache their metrics.
+ *
+ * <p>Building a {@link MetricName} for every lookup allocates a builder, intermediate {@link TagMap} copies, and the
+ * final name, even though the metric almost always exists already. {@link MetricLookup} instead accumulates the name
+ * and sorted tags into reusable per-thread buffers, and only allocates an immutable {@link MetricName} the first time a
+ * metric is registered.
+ *
+ * <pre>{@code
+ * Timer timer = MetricLookup.forCurrentThread()
+ *         .safeName("server.response")
+ *         .putSafeTags("endpoint", endpoint)
+ *         .timer(registry);
+ * }</pre>
+ *
+ * <p>Instances are confined to the current thread and reset by each terminal operation, so a lookup must be completed
+ * before another is started on the same thread. Registries which do not extend {@link AbstractTaggedMetricRegistry}
+ * are supported, but receive a newly allocated {@link MetricName} on every lookup.
+ */
+public final class MetricLookup {
+
+    private static final int INITIAL_TAG_CAPACITY = 8;
+
+    private static final ThreadLocal<MetricLookup> lookups = ThreadLocal.withInitial(MetricLookup::new);
+
+    private final Key key = new Key();
+
+    private MetricLookup() {}
+
+    /** Returns this thread's reusable lookup, cleared of any previous state. */
+    public static MetricLookup forCurrentThread() {
+        return lookups.get().reset();
+    }
+
+    @CanIgnoreReturnValue
+    public MetricLookup safeName(@Safe String value) {
+        key.safeName = Preconditions.checkNotNull(value, "safeName");
+        return this;
+    }
+
+    @CanIgnoreReturnValue
+    public MetricLookup putSafeTags(@Safe String tagName, @Safe String tagValue) {
+        Preconditions.checkNotNull(tagName, "safeTagName");
+        Preconditions.checkNotNull(tagValue, "safeTagValue");
+        key.put(tagName, tagValue);
+        return this;
+    }
+
+    /** Returns an immutable {@link MetricName} equal to the current lookup state. */
+    public MetricName metricName() {
+        try {
+            return key.toMetricName();
+        } finally {
+            reset();
+        }
+    }
+
+    public Counter counter(TaggedMetricRegistry registry) {
+        if (registry instanceof AbstractTaggedMetricRegistry) {
+            AbstractTaggedMetricRegistry abstractRegistry = (AbstractTaggedMetricRegistry) registry;
+            return lookup(abstractRegistry, Counter.class, abstractRegistry.counterSupplier());
+        }
+        return registry.counter(metricName());
+    }
+
+    public Histogram histogram(TaggedMetricRegistry registry) {
+        if (registry instanceof AbstractTaggedMetricRegistry) {
+            AbstractTaggedMetricRegistry abstractRegistry = (AbstractTaggedMetricRegistry) registry;
+            return lookup(abstractRegistry, Histogram.class, abstractRegistry.histogramSupplier());
+        }
+        return registry.histogram(metricName());
+    }
+
+    public Meter meter(TaggedMetricRegistry registry) {
+        if (registry instanceof AbstractTaggedMetricRegistry) {
+            AbstractTaggedMetricRegistry abstractRegistry = (AbstractTaggedMetricRegistry) registry;
+            return lookup(abstractRegistry, Meter.class, abstractRegistry.meterSupplier());
+        }
+        return registry.meter(metricName());
+    }
+
+    public Timer timer(TaggedMetricRegistry registry) {
+        if (registry instanceof AbstractTaggedMetricRegistry) {
+            AbstractTaggedMetricRegistry abstractRegistry = (AbstractTaggedMetricRegistry) registry;
+            return lookup(abstractRegistry, Timer.class, abstractRegistry.timerSupplier());
+        }
+        return registry.timer(metricName());
+    }
+
+    private <T extends Metric> T lookup(
+            AbstractTaggedMetricRegistry registry, Class<T> metricClass, Supplier<T> supplier) {
+        try {
+            return registry.getOrAdd(key, metricClass, supplier);
+        } finally {
+            reset();
+        }
+    }
+
+    @VisibleForTesting
+    Key key() {
+        return key;
+    }
+
+    private MetricLookup reset() {
+        key.clear();
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "MetricLookup{" + key + '}';
+    }
+
+    /**
+     * Mutable registry key which is equal to, and hashes identically to, the {@link MetricName} it describes. Keys are
+     * only used for reads and are never inserted into a registry.
+     */
+    static final class Key {
+        @Nullable
+        private String safeName;
+
+        /** Alternating tag names and values sorted by name, matching the {@link TagMap} layout. */
+        private String[] entries = new String[INITIAL_TAG_CAPACITY * 2];
+
+        private int length;
+
+        private void put(String tagName, String tagValue) {
+            int index = 0;
+            for (; index < length; index += 2) {
+                int comparison = entries[index].compareTo(tagName);
+                if (comparison == 0) {
+                    entries[index + 1] = tagValue;
+                    return;
+                }
+                if (comparison > 0) {
+                    break;
+                }
+            }
+            if (length + 2 > entries.length) {
+                entries = Arrays.copyOf(entries, entries.length * 2);
+            }
+            System.arraycopy(entries, index, entries, index + 2, length - index);
+            entries[index] = tagName;
+            entries[index + 1] = tagValue;
+            length += 2;
+        }
+
+        private void clear() {
+            safeName = null;
+            // Avoid retaining references to tag values beyond the lookup
+            Arrays.fill(entries, 0, length, null);
+            length = 0;
+        }
+
+        MetricName toMetricName() {
+            return new RealMetricName(
+                    Preconditions.checkNotNull(safeName, "safeName is required"),
+                    TagMap.ofSortedEntries(Arrays.copyOf(entries, length)));
+        }
+
+        @Override
+        public int hashCode() {
+            return RealMetricName.computeHashCode(
+                    Preconditions.checkNotNull(safeName, "safeName is required"), TagMap.hashCode(entries, length));
+        }
+
+        @Override
+        public boolean equals(@Nullable Object other) {
+            if (!(other instanceof MetricName)) {
+                return false;
+            }
+            MetricName otherName = (MetricName) other;
+            if (!otherName.safeName().equals(safeName)) {
+                return false;
+            }
+            SortedMap<String, String> otherTags = otherName.safeTags();
+            if (otherTags instanceof TagMap) {
+                return ((TagMap) otherTags).equalsEntries(entries, length);
+            }
+            return TagMap.ofSortedEntries(Arrays.copyOf(entries, length)).equals(otherTags);
+        }
+
+        @Override
+        public String toString() {
+            return "safeName=" + safeName + ", safeTags=" + TagMap.ofSortedEntries(Arrays.copyOf(entries, length));
+        }
+    }
+}
@@ -38,6 +38,19 @@ public interface MetricName {
     @Safe
     SortedMap<@Safe String, @Safe String> safeTags();
 
+    /**
+     * Stable 64-bit fingerprint of the {@link #safeName()} and {@link #safeTags()} of this metric, suitable as a
+     * compact series identifier for exported metrics.
+     *
+     * <p>Fingerprints are derived from the UTF-8 encoded name and tags using
+     * {@link com.google.common.hash.Hashing#farmHashFingerprint64()}, and therefore remain identical across JVM
+     * restarts and library versions. Distinct metric names may collide, so fingerprints must not replace
+     * {@link #equals(Object)} where collisions would be incorrect.
+     */
+    default long fingerprint() {
+        return RealMetricName.computeFingerprint(safeName(), safeTags());
+    }
+
     static Builder builder() {
         return new Builder();
     }
@@ -17,29 +17,63 @@
 package com.palantir.tritium.metrics.registry;
 
 import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import com.palantir.logsafe.Preconditions;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
 import java.util.SortedMap;
 import javax.annotation.Nullable;
 
 final class RealMetricName implements MetricName {
 
+    private static final HashFunction FINGERPRINT_FUNCTION = Hashing.farmHashFingerprint64();
+
     private final String safeName;
     private final TagMap safeTags;
     private int hashCode;
 
+    // Volatile as unsynchronized long writes are not guaranteed to be atomic
+    private volatile long fingerprint;
+
     RealMetricName(String safeName, TagMap safeTags) {
         this.safeName = Preconditions.checkNotNull(safeName, "safeName is required");
         this.safeTags = Preconditions.checkNotNull(safeTags, "safeTags is required");
     }
 
-    @SuppressWarnings("JdkObsolete") // SortedMap is part of Metrics API
     private int computeHashCode() {
+        return computeHashCode(safeName, safeTags.hashCode());
+    }
+
+    /** Shared with {@link MetricLookup} which must produce identical hashes without a {@link RealMetricName}. */
+    static int computeHashCode(String safeName, int safeTagsHashCode) {
         int hash = 5381;
-        hash += (hash << 5) + safeName().hashCode();
-        hash += (hash << 5) + safeTags().hashCode();
+        hash += (hash << 5) + safeName.hashCode();
+        hash += (hash << 5) + safeTagsHashCode;
         return hash;
     }
 
+    /**
+     * Computes the {@link MetricName#fingerprint()} of a name and tags. The encoding must not change, as fingerprints
+     * are expected to be stable across releases: each string is length-prefixed to keep boundaries unambiguous.
+     */
+    @SuppressWarnings("JdkObsolete") // SortedMap is part of Metrics API
+    static long computeFingerprint(String safeName, SortedMap<String, String> safeTags) {
+        Hasher hasher = FINGERPRINT_FUNCTION.newHasher();
+        putString(hasher, safeName);
+        hasher.putInt(safeTags.size());
+        for (Map.Entry<String, String> entry : safeTags.entrySet()) {
+            putString(hasher, entry.getKey());
+            putString(hasher, entry.getValue());
+        }
+        return hasher.hash().asLong();
+    }
+
+    private static void putString(Hasher hasher, String value) {
+        hasher.putInt(value.length()).putString(value, StandardCharsets.UTF_8);
+    }
+
     @Override
     public String safeName() {
         return safeName;
@@ -65,6 +99,16 @@ final class RealMetricName implements MetricName {
         return memoized;
     }
 
+    @Override
+    public long fingerprint() {
+        long memoized = fingerprint;
+        if (memoized == 0) {
+            memoized = computeFingerprint(safeName, safeTags);
+            fingerprint = memoized;
+        }
+        return memoized;
+    }
+
     @Override
     @SuppressWarnings("JdkObsolete") // SortedMap is part of Metrics API
     public boolean equals(@Nullable Object other) {
@@ -74,10 +118,18 @@ final class RealMetricName implements MetricName {
         if (this == other) {
             return true;
         }
+        if (other instanceof RealMetricName && !fingerprintsMatch(fingerprint, ((RealMetricName) other).fingerprint)) {
+            return false;
+        }
         MetricName otherMetric = (MetricName) other;
         return safeName().equals(otherMetric.safeName()) && safeTags().equals(otherMetric.safeTags());
     }
 
+    /** Only fingerprints which have already been computed are compared, as computing them is relatively expensive. */
+    private static boolean fingerprintsMatch(long fingerprint, long otherFingerprint) {
+        return fingerprint == 0 || otherFingerprint == 0 || fingerprint == otherFingerprint;
+    }
+
     static MetricName create(String safeName) {
         return new RealMetricName(safeName, TagMap.EMPTY);
     }
@@ -40,13 +40,19 @@ import javax.annotation.Nullable;
  * {@link TagMap} is a {@link SortedMap} implementation optimized for creation performance and memory overhead.
  * Primarily optimized to retain as little memory as possible, and create small short-lived intermediate objects.
  *
- * Note that we expect fairly small tag maps which are iterated over, not used for lookups. Most {@link Map}
- * methods are implemented, but use a naive linear search rather than a binary search.
+ * Most tag maps are small and iterated over rather than used for lookups, so key lookups use a linear search up to
+ * {@link #BINARY_SEARCH_THRESHOLD} entries and a binary search for wider maps. Each map also carries a 64-bit
+ * fingerprint of its entries, maintained incrementally by {@link #withEntry(String, String)}, which allows
+ * {@link #equals(Object)} to reject most unequal tag maps without comparing their entries.
  */
 @SuppressWarnings("JdkObsolete")
 final class TagMap implements SortedMap<String, String> {
 
-    static final TagMap EMPTY = new TagMap(new String[0]);
+    static final TagMap EMPTY = new TagMap(new String[0], 0L);
+
+    /** Maps with more than this many entries use binary rather than linear search to find keys. */
+    @VisibleForTesting
+    static final int BINARY_SEARCH_THRESHOLD = 8;
 
     /**
      * Map entries arranged with keys on even indexes and values in odd indexes.
@@ -55,6 +61,9 @@ final class TagMap implements SortedMap<String, String> {
      */
     private final String[] values;
 
+    /** Order independent sum of {@link #entryFingerprint(String, String)} over all entries. */
+    private final long fingerprint;
+
     static TagMap of(Map<String, String> data) {
         if (data instanceof TagMap) {
             return (TagMap) data;
@@ -71,8 +80,18 @@ final class TagMap implements SortedMap<String, String> {
         return new TagMap(toArray(data));
     }
 
+    /** Creates a {@link TagMap} which takes ownership of already sorted, alternating key and value entries. */
+    static TagMap ofSortedEntries(String[] entries) {
+        return entries.length == 0 ? EMPTY : new TagMap(entries);
+    }
+
     private TagMap(String[] values) {
+        this(values, fingerprint(values));
+    }
+
+    private TagMap(String[] values, long fingerprint) {
         this.values = values;
+        this.fingerprint = fingerprint;
     }
 
     @VisibleForTesting
@@ -116,29 +135,23 @@ final class TagMap implements SortedMap<String, String> {
     /** Returns a new {@link TagMap} with an additional or updated entry. */
     TagMap withEntry(String key, String value) {
         String[] local = this.values;
-        int newPosition = 0;
-        for (; newPosition < local.length; newPosition += 2) {
-            String current = local[newPosition];
-            int comparisonResult = current.compareTo(key);
-            if (comparisonResult == 0) {
-                if (Objects.equals(local[newPosition + 1], value)) {
-                    return this;
-                }
-                String[] newArray = local.clone();
-                newArray[newPosition + 1] = value;
-                return new TagMap(newArray);
-            }
-            if (comparisonResult > 0) {
-                break;
+        int index = search(local, key);
+        if (index >= 0) {
+            String existing = local[index + 1];
+            if (Objects.equals(existing, value)) {
+                return this;
             }
+            String[] newArray = local.clone();
+            newArray[index + 1] = value;
+            return new TagMap(newArray, fingerprint - entryFingerprint(key, existing) + entryFingerprint(key, value));
         }
-        // current is greater than the new key
+        int newPosition = -(index + 1);
         String[] newArray = new String[local.length + 2];
         System.arraycopy(local, 0, newArray, 0, newPosition);
         newArray[newPosition] = key;
         newArray[newPosition + 1] = value;
         System.arraycopy(local, newPosition, newArray, newPosition + 2, local.length - newPosition);
-        return new TagMap(newArray);
+        return new TagMap(newArray, fingerprint + entryFingerprint(key, value));
     }
 
     @Nullable
@@ -149,13 +162,49 @@ final class TagMap implements SortedMap<String, String> {
     }
 
     private int indexOfKey(Object key) {
-        String[] local = values;
-        for (int i = 0; i < local.length; i += 2) {
-            if (Objects.equals(key, local[i])) {
+        if (!(key instanceof String)) {
+            return -1;
+        }
+        int index = search(values, (String) key);
+        return index >= 0 ? index : -1;
+    }
+
+    /**
+     * Returns the index of {@code key} within the sorted {@code entries} if present, otherwise
+     * {@code -(insertionIndex + 1)}, following the {@link Arrays#binarySearch(Object[], Object)} convention.
+     */
+    @VisibleForTesting
+    static int search(String[] entries, String key) {
+        if (entries.length > BINARY_SEARCH_THRESHOLD * 2) {
+            return binarySearch(entries, key);
+        }
+        for (int i = 0; i < entries.length; i += 2) {
+            int comparison = entries[i].compareTo(key);
+            if (comparison == 0) {
                 return i;
             }
+            if (comparison > 0) {
+                return -(i + 1);
+            }
+        }
+        return -(entries.length + 1);
+    }
+
+    private static int binarySearch(String[] entries, String key) {
+        int low = 0;
+        int high = entries.length / 2 - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int comparison = entries[mid * 2].compareTo(key);
+            if (comparison < 0) {
+                low = mid + 1;
+            } else if (comparison > 0) {
+                high = mid - 1;
+            } else {
+                return mid * 2;
+            }
         }
-        return -1;
+        return -(low * 2 + 1);
     }
 
     @Override
@@ -189,7 +238,8 @@ final class TagMap implements SortedMap<String, String> {
             return true;
         }
         if (other instanceof TagMap) {
-            return Arrays.equals(values, ((TagMap) other).values);
+            TagMap otherTagMap = (TagMap) other;
+            return fingerprint == otherTagMap.fingerprint && Arrays.equals(values, otherTagMap.values);
         }
         if (!(other instanceof Map)) {
             return false;
@@ -208,11 +258,51 @@ final class TagMap implements SortedMap<String, String> {
         return true;
     }
 
+    /** Equivalent to comparing against a {@link TagMap} of the first {@code length} sorted {@code entries}. */
+    boolean equalsEntries(String[] entries, int length) {
+        String[] local = this.values;
+        if (local.length != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (!local[i].equals(entries[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     @Override
     public int hashCode() {
+        return hashCode(values, values.length);
+    }
+
+    @VisibleForTesting
+    long fingerprint() {
+        return fingerprint;
+    }
+
+    private static long fingerprint(String[] entries) {
+        long result = 0L;
+        for (int i = 0; i < entries.length; i += 2) {
+            result += entryFingerprint(entries[i], entries[i + 1]);
+        }
+        return result;
+    }
+
+    /** Mixes the key and value hashes of an entry into 64 bits using the murmur3 finalizer. */
+    private static long entryFingerprint(String key, String value) {
+        long hash = ((long) key.hashCode() << 32) | (value.hashCode() & 0xFFFFFFFFL);
+        hash = (hash ^ (hash >>> 33)) * 0xFF51AFD7ED558CCDL;
+        hash = (hash ^ (hash >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    /** Computes the {@link Map#hashCode()} of the first {@code length} alternating key and value entries. */
+    static int hashCode(String[] entries, int length) {
         int hashCode = 0;
-        for (int i = 0; i < values.length; i += 2) {
-            hashCode += Objects.hashCode(values[i]) ^ Objects.hashCode(values[i + 1]);
+        for (int i = 0; i < length; i += 2) {
+            hashCode += Objects.hashCode(entries[i]) ^ Objects.hashCode(entries[i + 1]);
         }
         return hashCode;
     }
@@ -421,7 +511,10 @@ final class TagMap implements SortedMap<String, String> {
             for (int i = 0; i < local.length; i += 2) {
                 result[i / 2] = (T) new TagEntry(local[i], local[i + 1]);
             }
-            Arrays.fill(result, resultLength, array.length, null);
+            if (result.length > resultLength) {
+                // Per Collection#toArray(T[]), the element following the collection is set to null
+                result[resultLength] = null;
+            }
             return result;
         }
 
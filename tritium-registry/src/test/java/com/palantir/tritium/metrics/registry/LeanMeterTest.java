@@ -0,0 +1,121 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.tritium.metrics.registry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import com.codahale.metrics.Clock;
+import com.codahale.metrics.LockFreeExponentiallyDecayingReservoir;
+import com.codahale.metrics.Meter;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+
+final class LeanMeterTest {
+
+    private final ManualClock clock = new ManualClock();
+
+    @Test
+    void testCount() {
+        LeanMeter meter = new LeanMeter(clock);
+        assertThat(meter.getCount()).isZero();
+        assertThat(meter.getMeanRate()).isZero();
+        assertThat(meter.getOneMinuteRate()).isZero();
+
+        meter.mark();
+        meter.mark(41);
+        assertThat(meter.getCount()).isEqualTo(42);
+    }
+
+    @Test
+    void testMeanRate() {
+        LeanMeter meter = new LeanMeter(clock);
+        meter.mark(100);
+        clock.addSeconds(10);
+        assertThat(meter.getMeanRate()).isCloseTo(10D, within(1e-9));
+    }
+
+    @Test
+    void testMatchesDefaultMeterWhenReadEveryTick() {
+        Meter expected = new Meter(clock);
+        LeanMeter actual = new LeanMeter(clock);
+        for (int i = 0; i < 500; i++) {
+            long events = i % 7 * 3L;
+            expected.mark(events);
+            actual.mark(events);
+            clock.addSeconds(4);
+            assertThat(actual.getOneMinuteRate()).isCloseTo(expected.getOneMinuteRate(), within(1e-9));
+            assertThat(actual.getFiveMinuteRate()).isCloseTo(expected.getFiveMinuteRate(), within(1e-9));
+            assertThat(actual.getFifteenMinuteRate()).isCloseTo(expected.getFifteenMinuteRate(), within(1e-9));
+        }
+    }
+
+    @Test
+    void testLazyRatesWithInfrequentReads() {
+        LeanMeter actual = new LeanMeter(clock);
+        for (int i = 0; i < 60; i++) {
+            // Uniform load at one event per second, only observed once per minute
+            for (int second = 0; second < 60; second++) {
+                actual.mark();
+                clock.addSeconds(1);
+            }
+            assertThat(actual.getOneMinuteRate()).isCloseTo(1D, within(0.01));
+            assertThat(actual.getFiveMinuteRate()).isCloseTo(1D, within(0.01));
+            assertThat(actual.getFifteenMinuteRate()).isCloseTo(1D, within(0.01));
+        }
+
+        // Rates decay towards zero once marks stop
+        clock.addSeconds(TimeUnit.MINUTES.toSeconds(30));
+        assertThat(actual.getOneMinuteRate()).isCloseTo(0D, within(1e-6));
+        assertThat(actual.getFifteenMinuteRate()).isLessThan(0.2);
+        assertThat(actual.getCount()).isEqualTo(3600);
+    }
+
+    @Test
+    void testRegistryMeterSupplier() {
+        TaggedMetricRegistry registry = new LeanRegistry();
+        MetricName name = MetricName.builder().safeName("test").build();
+        Meter meter = registry.meter(name);
+        assertThat(meter).isInstanceOf(LeanMeter.class);
+        assertThat(registry.meter(name)).isSameAs(meter);
+    }
+
+    private static final class LeanRegistry extends AbstractTaggedMetricRegistry {
+        LeanRegistry() {
+            super(() -> LockFreeExponentiallyDecayingReservoir.builder().build());
+        }
+
+        @Override
+        protected Supplier<Meter> meterSupplier() {
+            return LeanMeter::new;
+        }
+    }
+
+    private static final class ManualClock extends Clock {
+        private long ticksInNanos;
+
+        synchronized void addSeconds(long seconds) {
+            ticksInNanos += TimeUnit.SECONDS.toNanos(seconds);
+        }
+
+        @Override
+        public synchronized long getTick() {
+            return ticksInNanos;
+        }
+    }
+}
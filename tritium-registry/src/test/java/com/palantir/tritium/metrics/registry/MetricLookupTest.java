@@ -0,0 +1,170 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.tritium.metrics.registry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
+import com.google.common.collect.ImmutableSortedMap;
+import com.palantir.logsafe.exceptions.SafeIllegalArgumentException;
+import com.palantir.logsafe.exceptions.SafeNullPointerException;
+import com.palantir.tritium.registry.test.TestTaggedMetricRegistries;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+final class MetricLookupTest {
+
+    private static final MetricName NAME = MetricName.builder()
+            .safeName("test")
+            .putSafeTags("b", "2")
+            .putSafeTags("a", "1")
+            .putSafeTags("c", "3")
+            .build();
+
+    @ParameterizedTest
+    @MethodSource(TestTaggedMetricRegistries.REGISTRIES)
+    void testFindsExistingMetrics(TaggedMetricRegistry registry) {
+        Timer timer = registry.timer(NAME);
+        assertThat(lookup().timer(registry)).isSameAs(timer);
+
+        Meter meter = registry.meter(withName("meter"));
+        assertThat(lookup().safeName("meter").meter(registry)).isSameAs(meter);
+
+        Counter counter = registry.counter(withName("counter"));
+        assertThat(lookup().safeName("counter").counter(registry)).isSameAs(counter);
+
+        Histogram histogram = registry.histogram(withName("histogram"));
+        assertThat(lookup().safeName("histogram").histogram(registry)).isSameAs(histogram);
+    }
+
+    @ParameterizedTest
+    @MethodSource(TestTaggedMetricRegistries.REGISTRIES)
+    void testRegistersMissingMetrics(TaggedMetricRegistry registry) {
+        Timer timer = lookup().timer(registry);
+        assertThat(registry.getMetrics()).containsOnlyKeys(NAME);
+        assertThat(registry.timer(NAME)).isSameAs(timer);
+        assertThat(lookup().timer(registry)).isSameAs(timer);
+
+        MetricName registered = registry.getMetrics().keySet().iterator().next();
+        assertThat(registered).isInstanceOf(RealMetricName.class);
+        assertThat(registered.safeTags()).isInstanceOf(TagMap.class).containsExactlyEntriesOf(NAME.safeTags());
+    }
+
+    @Test
+    void testMetricName() {
+        MetricName metricName = lookup().metricName();
+        assertThat(metricName).isEqualTo(NAME).hasSameHashCodeAs(NAME);
+        assertThat(NAME).isEqualTo(metricName);
+
+        assertThat(MetricLookup.forCurrentThread().safeName("test").metricName())
+                .isEqualTo(MetricName.builder().safeName("test").build());
+    }
+
+    @Test
+    void testKeyMatchesMetricName() {
+        MetricLookup.Key key = lookup().key();
+        assertThat(key).isEqualTo(NAME).hasSameHashCodeAs(NAME);
+
+        MetricName customName = new MetricName() {
+            @Override
+            public String safeName() {
+                return NAME.safeName();
+            }
+
+            @Override
+            public ImmutableSortedMap<String, String> safeTags() {
+                return ImmutableSortedMap.copyOf(NAME.safeTags());
+            }
+        };
+        assertThat(key).isEqualTo(customName);
+        assertThat(key).isNotEqualTo(withName("other"));
+        assertThat(key).isNotEqualTo(MetricName.builder().from(NAME).putSafeTags("d", "4").build());
+        assertThat(key).isNotEqualTo(MetricName.builder().from(NAME).putSafeTags("a", "0").build());
+    }
+
+    @Test
+    void testLaterTagValuesReplaceEarlierValues() {
+        MetricName metricName = MetricLookup.forCurrentThread()
+                .safeName("test")
+                .putSafeTags("a", "0")
+                .putSafeTags("c", "3")
+                .putSafeTags("b", "2")
+                .putSafeTags("a", "1")
+                .metricName();
+        assertThat(metricName).isEqualTo(NAME);
+    }
+
+    @Test
+    void testManyTags() {
+        MetricName.Builder builder = MetricName.builder().safeName("test");
+        MetricLookup lookup = MetricLookup.forCurrentThread().safeName("test");
+        for (int i = 32; i > 0; i--) {
+            builder.putSafeTags("tag" + i, "value" + i);
+            lookup.putSafeTags("tag" + i, "value" + i);
+        }
+        assertThat(lookup.metricName()).isEqualTo(builder.build());
+    }
+
+    @Test
+    void testStateIsResetBetweenLookups() {
+        TaggedMetricRegistry registry = new DefaultTaggedMetricRegistry();
+        lookup().meter(registry);
+        assertThat(MetricLookup.forCurrentThread().safeName("test").metricName())
+                .isEqualTo(MetricName.builder().safeName("test").build());
+        assertThatThrownBy(() -> MetricLookup.forCurrentThread().metricName())
+                .isInstanceOf(SafeNullPointerException.class);
+    }
+
+    @Test
+    void testMetricTypeConflict() {
+        TaggedMetricRegistry registry = new DefaultTaggedMetricRegistry();
+        registry.meter(NAME);
+        assertThatThrownBy(() -> lookup().timer(registry))
+                .isInstanceOf(SafeIllegalArgumentException.class)
+                .hasMessageContaining("Metric name already used for different metric type");
+    }
+
+    @Test
+    void testOtherRegistryImplementations() {
+        TaggedMetricRegistry registry = mock(TaggedMetricRegistry.class);
+        Timer timer = new Timer();
+        when(registry.timer(any(MetricName.class))).thenReturn(timer);
+        assertThat(lookup().timer(registry)).isSameAs(timer);
+        verify(registry).timer(NAME);
+    }
+
+    private static MetricLookup lookup() {
+        return MetricLookup.forCurrentThread()
+                .safeName("test")
+                .putSafeTags("c", "3")
+                .putSafeTags("a", "1")
+                .putSafeTags("b", "2");
+    }
+
+    private static MetricName withName(String safeName) {
+        return MetricName.builder().from(NAME).safeName(safeName).build();
+    }
+}
@@ -18,6 +18,8 @@ package com.palantir.tritium.metrics.registry;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import com.google.common.collect.ImmutableSortedMap;
+import java.util.SortedMap;
 import org.junit.jupiter.api.Test;
 
 public class MetricNameTest {
@@ -107,4 +109,67 @@ public class MetricNameTest {
         assertThat(one).isNotEqualTo(two);
         assertThat(two).isNotEqualTo(one);
     }
+
+    @Test
+    public void fingerprint() {
+        MetricName one = MetricName.builder()
+                .safeName("test")
+                .putSafeTags("key1", "value1")
+                .putSafeTags("key2", "value2")
+                .build();
+        MetricName two = MetricName.builder()
+                .safeName("test")
+                .putSafeTags("key2", "value2")
+                .putSafeTags("key1", "value1")
+                .build();
+        MetricName custom = new MetricName() {
+            @Override
+            public String safeName() {
+                return "test";
+            }
+
+            @Override
+            public SortedMap<String, String> safeTags() {
+                return ImmutableSortedMap.of("key1", "value1", "key2", "value2");
+            }
+        };
+
+        // Fingerprints must remain stable across releases
+        assertThat(one.fingerprint()).isEqualTo(4414545051061683273L);
+        assertThat(two.fingerprint()).isEqualTo(one.fingerprint());
+        assertThat(custom.fingerprint()).isEqualTo(one.fingerprint());
+        assertThat(MetricName.builder().from(one).putSafeTags("key2", "valueZ").build().fingerprint())
+                .isNotEqualTo(one.fingerprint());
+        assertThat(MetricName.builder().from(one).safeName("other").build().fingerprint())
+                .isNotEqualTo(one.fingerprint());
+    }
+
+    @Test
+    public void fingerprintBoundaries() {
+        MetricName one = MetricName.builder()
+                .safeName("a")
+                .putSafeTags("key", "value")
+                .build();
+        MetricName two = MetricName.builder()
+                .safeName("a")
+                .putSafeTags("keyv", "alue")
+                .build();
+        MetricName three = MetricName.builder()
+                .safeName("akey")
+                .putSafeTags("", "value")
+                .build();
+        assertThat(one.fingerprint()).isNotEqualTo(two.fingerprint()).isNotEqualTo(three.fingerprint());
+        assertThat(two.fingerprint()).isNotEqualTo(three.fingerprint());
+    }
+
+    @Test
+    public void compareAfterFingerprint() {
+        MetricName one = MetricName.builder().safeName("a").build();
+        MetricName two = MetricName.builder().safeName("a").build();
+        MetricName three = MetricName.builder().safeName("b").build();
+        assertThat(one.fingerprint()).isEqualTo(two.fingerprint());
+        assertThat(three.fingerprint()).isNotEqualTo(one.fingerprint());
+        assertThat(one).isEqualTo(two).isNotEqualTo(three);
+        assertThat(three).isNotEqualTo(one);
+    }
 }
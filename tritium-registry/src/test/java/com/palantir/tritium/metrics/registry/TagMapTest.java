@@ -24,7 +24,11 @@ import com.google.common.collect.Ordering;
 import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Map;
+import java.util.TreeMap;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 
 class TagMapTest {
 
@@ -75,6 +79,94 @@ class TagMapTest {
         assertThat(map.withEntry("foo", "bar")).isSameAs(map);
     }
 
+    @Test
+    void testEntrySetToArray() {
+        TagMap map = TagMap.EMPTY.withEntry("a", "1").withEntry("b", "2");
+        assertThat(map.entrySet().toArray(new Map.Entry<?, ?>[0]))
+                .containsExactly(new SimpleImmutableEntry<>("a", "1"), new SimpleImmutableEntry<>("b", "2"));
+        Map.Entry<?, ?>[] larger = new Map.Entry<?, ?>[] {null, null, new SimpleImmutableEntry<>("c", "3")};
+        assertThat(map.entrySet().toArray(larger))
+                .isSameAs(larger)
+                .containsExactly(new SimpleImmutableEntry<>("a", "1"), new SimpleImmutableEntry<>("b", "2"), null);
+        assertThat(ImmutableSortedMap.copyOf(map)).containsExactlyEntriesOf(map);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3, 7, 8, 9, 15, 16, 17, 31, 32})
+    void testLookups(int size) {
+        Map<String, String> expected = new TreeMap<>();
+        for (int i = 0; i < size; i++) {
+            // Keys are spaced apart to allow lookups which fall between them
+            expected.put(key(i * 2 + 1), "value" + i);
+        }
+        TagMap map = TagMap.of(expected);
+        assertThat(map).containsExactlyEntriesOf(expected);
+        for (int i = 0; i <= size * 2 + 1; i++) {
+            String key = key(i);
+            assertThat(map.get(key)).isEqualTo(expected.get(key));
+            assertThat(map.containsKey(key)).isEqualTo(expected.containsKey(key));
+        }
+        assertThat(map.get(1)).isNull();
+        assertThat(map.containsKey(null)).isFalse();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 8, 9, 16, 17, 32})
+    void testSearchInsertionPoint(int size) {
+        String[] entries = new String[size * 2];
+        for (int i = 0; i < size; i++) {
+            entries[i * 2] = key(i * 2 + 1);
+            entries[i * 2 + 1] = "value";
+        }
+        for (int i = 0; i < size; i++) {
+            assertThat(TagMap.search(entries, key(i * 2 + 1))).isEqualTo(i * 2);
+            assertThat(TagMap.search(entries, key(i * 2))).isEqualTo(-(i * 2 + 1));
+        }
+        assertThat(TagMap.search(entries, key(size * 2 + 1))).isEqualTo(-(size * 2 + 1));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 8, 9, 16, 17, 32})
+    void testWithEntryOrdering(int size) {
+        TagMap forward = TagMap.EMPTY;
+        TagMap reverse = TagMap.EMPTY;
+        Map<String, String> expected = new TreeMap<>();
+        for (int i = 0; i < size; i++) {
+            forward = forward.withEntry(key(i), "value" + i);
+            reverse = reverse.withEntry(key(size - i - 1), "value" + (size - i - 1));
+            expected.put(key(i), "value" + i);
+        }
+        assertThat(forward).containsExactlyEntriesOf(expected).isEqualTo(reverse).isEqualTo(expected);
+        assertThat(reverse).containsExactlyEntriesOf(expected);
+        assertThat(forward.fingerprint())
+                .isEqualTo(reverse.fingerprint())
+                .isEqualTo(TagMap.of(expected).fingerprint());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 8, 9, 16, 17, 32})
+    void testFingerprint(int size) {
+        Map<String, String> entries = new TreeMap<>();
+        for (int i = 0; i < size; i++) {
+            entries.put(key(i), "value" + i);
+        }
+        TagMap map = TagMap.of(entries);
+        assertThat(map.fingerprint()).isNotZero();
+
+        String lastKey = key(size - 1);
+        TagMap replaced = map.withEntry(lastKey, "other");
+        assertThat(replaced).isNotEqualTo(map).containsEntry(lastKey, "other");
+        assertThat(replaced.fingerprint()).isNotEqualTo(map.fingerprint());
+
+        TagMap restored = replaced.withEntry(lastKey, "value" + (size - 1));
+        assertThat(restored).isNotSameAs(map).isEqualTo(map).hasSameHashCodeAs(map);
+        assertThat(restored.fingerprint()).isEqualTo(map.fingerprint());
+
+        assertThat(map.withEntry("zzz", "value")).isNotEqualTo(map);
+        TagMap head = (TagMap) map.headMap(lastKey);
+        assertThat(head.fingerprint()).isEqualTo(TagMap.of(new TreeMap<>(entries).headMap(lastKey)).fingerprint());
+    }
+
     @Test
     void testNaturalOrder() {
         assertThat(TagMap.isNaturalOrder(Ordering.natural())).isTrue();
@@ -90,4 +182,8 @@ class TagMapTest {
                 .as("Expected ImmutableSortedMap comparator %s to be natural", immutableSortedMapComparator)
                 .isTrue();
     }
+
+    private static String key(int index) {
+        return String.format("key%03d", index);
+    }
 }